@@ -1,8 +1,17 @@
 package mainProgram.config;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import mainProgram.services.JobStatusRegistry;
+import mainProgram.table.JobStatus;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,17 +29,45 @@ public class JacksonConfig {
    * <ul>
    *   <li>JavaTimeModule registration for Java 8+ date/time API support (LocalDate, LocalDateTime, etc.)</li>
    *   <li>ISO-8601 date format instead of numeric timestamps</li>
+   *   <li>Job statuses written from the {@link JobStatusRegistry}, so a job's lazy status
+   *   proxy is never loaded, also after its session has closed (live updates)</li>
    * </ul>
    *
+   * @param statusRegistry the in-memory job statuses, looked up when a status is written
    * @return configured ObjectMapper instance for use throughout the application
    */
   @Bean
-  public ObjectMapper objectMapper() {
+  public ObjectMapper objectMapper(ObjectProvider<JobStatusRegistry> statusRegistry) {
     ObjectMapper mapper = new ObjectMapper();
     // Register JavaTimeModule to enable serialization/deserialization of Java 8+ date/time types
     mapper.registerModule(new JavaTimeModule());
     // Don't write dates as timestamps
     mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // Applies to JobStatus proxies too, as serializers are matched on superclasses
+    mapper.registerModule(new SimpleModule().addSerializer(JobStatus.class, new JobStatusSerializer(statusRegistry)));
     return mapper;
   }
+
+  /// Writes a job status as {"id": ..., "name": ...}. The ID of a proxy is known without loading it;
+  /// the name comes from the registry, or from the status itself if it is loaded and the registry doesn't know it.
+  static class JobStatusSerializer extends StdSerializer<JobStatus> {
+
+    private final ObjectProvider<JobStatusRegistry> statusRegistry;
+
+    JobStatusSerializer(ObjectProvider<JobStatusRegistry> statusRegistry) {
+      super(JobStatus.class);
+      this.statusRegistry = statusRegistry;
+    }
+
+    @Override
+    public void serialize(JobStatus status, JsonGenerator generator, SerializerProvider provider) throws IOException {
+      Short id = status.getId();
+      String name = statusRegistry.getObject().nameOf(id);
+      if (name == null && Hibernate.isInitialized(status)) name = status.getName();
+      generator.writeStartObject();
+      generator.writeObjectField("id", id);
+      generator.writeStringField("name", name);
+      generator.writeEndObject();
+    }
+  }
 }
@@ -0,0 +1,12 @@
+package mainProgram.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling {@code @Scheduled} background tasks, such as the nightly
+ * job archiving in {@link mainProgram.services.JobArchiver}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
@@ -0,0 +1,49 @@
+package mainProgram.config;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import mainProgram.repository.JobRepository;
+import mainProgram.repository.JobSearchIndex;
+import mainProgram.repository.SearchableRepository;
+import mainProgram.table.Job;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class choosing the search backend used by the search services.
+ *
+ * <p>Job search is selected with {@code app.search.jobs.engine}:</p>
+ * <ul>
+ *   <li>{@code database} (default) - the JPQL {@code LIKE} search in JobRepositoryImpl</li>
+ *   <li>{@code index} - the in-memory trigram index ({@link JobSearchIndex})</li>
+ * </ul>
+ */
+@Configuration
+public class SearchConfig {
+
+  /**
+   * The job search backend injected into JobService as "jobSearch".
+   *
+   * @param jobRepository the repository providing the database search
+   * @param index         the in-memory index, present only when enabled
+   * @return the index if enabled, otherwise the database search
+   */
+  @Bean
+  public SearchableRepository<Job> jobSearch(JobRepository jobRepository, ObjectProvider<JobSearchIndex> index) {
+    SearchableRepository<Job> enabled = index.getIfAvailable();
+    SearchableRepository<Job> target = enabled != null ? enabled : jobRepository;
+    // Delegate instead of returning the beans themselves, so they aren't registered a second time
+    return new SearchableRepository<>() {
+      @Override
+      public List<Job> search(String keyword) {
+        return target.search(keyword);
+      }
+
+      @Override
+      public List<Job> autocomplete(String prefix, int limit, BooleanSupplier superseded) {
+        return target.autocomplete(prefix, limit, superseded);
+      }
+    };
+  }
+}
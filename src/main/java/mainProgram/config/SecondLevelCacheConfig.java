@@ -0,0 +1,93 @@
+package mainProgram.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration class for the Hibernate second-level cache.
+ *
+ * <p>Hibernate reaches the cache through JCache, and Caffeine stores the entries.
+ * Every region is created here with its own size limit and time to live, read from
+ * {@code app.cache.<region>.max-entries} and {@code app.cache.<region>.ttl-seconds}.
+ * Hibernate is set to fail on any region that is not listed, so a newly cached
+ * entity cannot end up in an unbounded default cache.</p>
+ *
+ * <ul>
+ *   <li>{@value #PRODUCTS} - Product rows</li>
+ *   <li>{@value #QUERIES} - results of the queries marked cacheable (IDs only, the rows come from the region above)</li>
+ *   <li>{@value #UPDATE_TIMESTAMPS} - last write per table, used to drop stale query results; never expires</li>
+ * </ul>
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  public static final String PRODUCTS = "products";
+  public static final String QUERIES = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+  public static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+  /// Every cached region, in the order statistics are reported
+  public static final List<String> REGIONS = List.of(PRODUCTS, QUERIES, UPDATE_TIMESTAMPS);
+
+  /**
+   * The JCache manager holding the second-level cache regions.
+   *
+   * <p>Each application context gets its own manager (a unique URI), so two contexts
+   * in one JVM, as in the tests, don't share or clash over regions.</p>
+   *
+   * @param environment source of the per-region limits
+   * @return the cache manager, closed with the context
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(Environment environment) {
+    CacheManager manager = Caching
+      .getCachingProvider("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider")
+      .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+    region(manager, environment, PRODUCTS, 10_000, Duration.ofHours(1));
+    region(manager, environment, QUERIES, 1_000, Duration.ofMinutes(10));
+    // Must outlive every cached query result, or stale results could be served
+    region(manager, environment, UPDATE_TIMESTAMPS, 0, Duration.ZERO);
+    return manager;
+  }
+
+  /**
+   * Hands the cache manager to Hibernate.
+   *
+   * @param hibernateCacheManager the manager with every region created
+   * @return the customizer adding it to the Hibernate properties
+   */
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+    return (properties) -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  /// Create one region; a limit or TTL of 0 means unbounded
+  private static void region(
+    CacheManager manager,
+    Environment environment,
+    String name,
+    long defaultMaxEntries,
+    Duration defaultTtl
+  ) {
+    long maxEntries = environment.getProperty("app.cache." + name + ".max-entries", Long.class, defaultMaxEntries);
+    long ttlSeconds = environment.getProperty("app.cache." + name + ".ttl-seconds", Long.class, defaultTtl.toSeconds());
+
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    if (maxEntries > 0) configuration.setMaximumSize(OptionalLong.of(maxEntries));
+    if (ttlSeconds > 0) configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()));
+    configuration.setStatisticsEnabled(true);
+    manager.createCache(name, configuration);
+  }
+}
@@ -0,0 +1,24 @@
+package mainProgram.controller;
+
+import java.util.Map;
+import mainProgram.services.SecondLevelCacheStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+  private final SecondLevelCacheStats secondLevelCacheStats;
+
+  public CacheController(SecondLevelCacheStats secondLevelCacheStats) {
+    this.secondLevelCacheStats = secondLevelCacheStats;
+  }
+
+  /// Hibernate second-level cache statistics per region: size, hits, misses, puts, hit rate
+  @GetMapping("/stats")
+  public Map<String, Map<String, Object>> stats() {
+    return secondLevelCacheStats.stats();
+  }
+}
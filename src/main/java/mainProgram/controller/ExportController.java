@@ -0,0 +1,80 @@
+package mainProgram.controller;
+
+import java.nio.charset.StandardCharsets;
+import mainProgram.services.ExportService;
+import mainProgram.services.ExportService.Format;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for full data exports (e.g. the monthly dump for accounting).
+ *
+ * <p>Responses are streamed: rows are written as they are read from the database,
+ * so an export never holds the whole dataset in memory.</p>
+ *
+ * <ul>
+ *   <li>GET /api/export/jobs.jsonl, /api/export/jobs.csv - all jobs</li>
+ *   <li>GET /api/export/job-parts.jsonl, /api/export/job-parts.csv - all used parts with job and product</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+  private final ExportService exportService;
+
+  public ExportController(ExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  /**
+   * Streams all jobs.
+   *
+   * @param extension "jsonl" or "csv"
+   * @return the streamed export, or 404 for an unknown format
+   */
+  @GetMapping("/jobs.{extension}")
+  public ResponseEntity<StreamingResponseBody> exportJobs(@PathVariable String extension) {
+    Format format = parseFormat(extension);
+    if (format == null) return ResponseEntity.notFound().build();
+    return download("jobs", format, (out) -> exportService.exportJobs(format, out));
+  }
+
+  /**
+   * Streams all job parts with their job and product.
+   *
+   * @param extension "jsonl" or "csv"
+   * @return the streamed export, or 404 for an unknown format
+   */
+  @GetMapping("/job-parts.{extension}")
+  public ResponseEntity<StreamingResponseBody> exportJobParts(@PathVariable String extension) {
+    Format format = parseFormat(extension);
+    if (format == null) return ResponseEntity.notFound().build();
+    return download("job-parts", format, (out) -> exportService.exportJobParts(format, out));
+  }
+
+  private static Format parseFormat(String extension) {
+    return switch (extension) {
+      case "jsonl" -> Format.JSONL;
+      case "csv" -> Format.CSV;
+      default -> null;
+    };
+  }
+
+  private static ResponseEntity<StreamingResponseBody> download(String name, Format format, StreamingResponseBody body) {
+    String extension = format == Format.CSV ? "csv" : "jsonl";
+    MediaType type = format == Format.CSV
+      ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+      : MediaType.parseMediaType("application/x-ndjson");
+    return ResponseEntity.ok()
+      .contentType(type)
+      .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"")
+      .body(body);
+  }
+}
@@ -0,0 +1,84 @@
+package mainProgram.controller;
+
+import java.util.List;
+import mainProgram.dto.ProductStock;
+import mainProgram.dto.StockUpdate;
+import mainProgram.services.InventoryService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the parts inventory.
+ *
+ * <p>Parts are reserved when they are added to a repair and released when they are
+ * removed; picking the job up takes them off the shelf.</p>
+ *
+ * <ul>
+ *   <li>GET /api/inventory/{productId} - the stock of one product</li>
+ *   <li>PUT /api/inventory/{productId} - set the parts on the shelf after a stock count</li>
+ *   <li>POST /api/inventory/{productId}/delivery - add received parts to the shelf</li>
+ *   <li>GET /api/inventory/low-stock - counted products running low, fewest available first</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+  private final InventoryService inventoryService;
+
+  public InventoryController(InventoryService inventoryService) {
+    this.inventoryService = inventoryService;
+  }
+
+  /**
+   * @return 200 with the stock, or 404 if the product doesn't exist
+   */
+  @GetMapping("/{productId}")
+  public ResponseEntity<ProductStock> getStock(@PathVariable int productId) {
+    return ResponseEntity.of(inventoryService.getStock(productId));
+  }
+
+  /**
+   * @param update the counted number of parts on the shelf
+   * @return 200 with the new stock, 400 for a missing or negative quantity, or 404 if the product doesn't exist
+   */
+  @PutMapping("/{productId}")
+  public ResponseEntity<ProductStock> countStock(@PathVariable int productId, @RequestBody StockUpdate update) {
+    try {
+      if (!inventoryService.countStock(productId, update.quantity())) return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.of(inventoryService.getStock(productId));
+  }
+
+  /**
+   * @param update the number of parts received
+   * @return 200 with the new stock, 400 for a missing or non-positive quantity, or 404 if the product doesn't exist
+   */
+  @PostMapping("/{productId}/delivery")
+  public ResponseEntity<ProductStock> receiveStock(@PathVariable int productId, @RequestBody StockUpdate update) {
+    try {
+      if (!inventoryService.receiveStock(productId, update.quantity())) return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.of(inventoryService.getStock(productId));
+  }
+
+  /**
+   * @param below list products with fewer parts available than this (default {@code app.inventory.low-stock-threshold})
+   * @return the products running low, fewest available first
+   */
+  @GetMapping("/low-stock")
+  public List<ProductStock> lowStock(@RequestParam(required = false) Integer below) {
+    return inventoryService.findLowStock(below);
+  }
+}
@@ -1,17 +1,33 @@
 package mainProgram.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import mainProgram.dto.CalendarJob;
+import mainProgram.dto.JobBulkReschedule;
+import mainProgram.dto.JobBulkStatus;
+import mainProgram.dto.JobChanges;
+import mainProgram.dto.JobSchedulePatch;
+import mainProgram.dto.JobStatusPatch;
+import mainProgram.dto.KeysetPage;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.events.JobChangedEvent;
 import mainProgram.repository.JobRepository;
-import mainProgram.repository.JobStatusRepository;
+import mainProgram.services.JobArchiver;
+import mainProgram.services.JobEventBroadcaster;
 import mainProgram.services.JobService;
+import mainProgram.services.JobStatusRegistry;
 import mainProgram.table.Job;
-import mainProgram.table.JobStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST controller for managing job-related operations.
@@ -22,30 +38,133 @@ import org.springframework.web.bind.annotation.*;
 public class JobController {
 
   private final JobRepository jobRepository;
-  private final JobStatusRepository statusRepository;
+  private final JobStatusRegistry statusRegistry;
   private final JobService jobService;
+  private final JobEventBroadcaster broadcaster;
+  private final ApplicationEventPublisher eventPublisher;
+  private final JobArchiver archiver;
 
   /**
    * Constructor for dependency injection.
    *
    * @param jobRepository    the repository for job database operations
-   * @param statusRepository the repository for job status database operations
+   * @param statusRegistry   the in-memory registry of job statuses
+   * @param jobService       the service layer for job business logic
+   * @param broadcaster      the service pushing job changes to connected clients
+   * @param eventPublisher   the publisher used to announce job changes
+   * @param archiver         the service moving closed jobs to the archive
    */
-  public JobController(JobRepository jobRepository, JobStatusRepository statusRepository, JobService jobService) {
+  public JobController(
+    JobRepository jobRepository,
+    JobStatusRegistry statusRegistry,
+    JobService jobService,
+    JobEventBroadcaster broadcaster,
+    ApplicationEventPublisher eventPublisher,
+    JobArchiver archiver
+  ) {
     this.jobRepository = jobRepository;
-    this.statusRepository = statusRepository;
+    this.statusRegistry = statusRegistry;
     this.jobService = jobService;
+    this.broadcaster = broadcaster;
+    this.eventPublisher = eventPublisher;
+    this.archiver = archiver;
   }
 
   /**
-   * Retrieves all jobs from the database.
+   * Retrieves jobs from the database.
+   * When both {@code from} and {@code to} are given, only the jobs inside that
+   * date window are returned (used by the calendar for its visible range);
+   * otherwise all jobs are returned.
    *
-   * @return a list of all jobs
+   * @param from start of the date window (inclusive), ISO date-time
+   * @param to   end of the date window (exclusive), ISO date-time
+   * @return the jobs in the window, or all jobs if no window is given
    */
   @GetMapping("api/jobs")
   @ResponseBody
-  public List<Job> getJobs() {
-    return jobRepository.findAll();
+  public ResponseEntity<List<Job>> getJobs(
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+  ) {
+    if (from == null && to == null) return ResponseEntity.ok(jobRepository.findAll());
+    // A window needs both ends, and must not be inverted
+    if (from == null || to == null || !from.isBefore(to)) return ResponseEntity.badRequest().build();
+    return ResponseEntity.ok(jobRepository.findByDateRange(from, to));
+  }
+
+  /**
+   * Retrieves the lightweight calendar view of the jobs inside a date window.
+   * Returns only what the calendar renders (see {@link CalendarJob}) instead of full job entities.
+   *
+   * @param from start of the date window (inclusive), ISO date-time
+   * @param to   end of the date window (exclusive), ISO date-time
+   * @return the calendar rows in the window, or a bad request if the window is invalid
+   */
+  @GetMapping("api/jobs/calendar")
+  @ResponseBody
+  public ResponseEntity<List<CalendarJob>> getCalendarJobs(
+    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+  ) {
+    if (!from.isBefore(to)) return ResponseEntity.badRequest().build();
+    return ResponseEntity.ok(jobRepository.findCalendarJobs(from, to));
+  }
+
+  /**
+   * Retrieves a single job with all its fields.
+   *
+   * @param id the ID of the job
+   * @return the job if found, or a not found response
+   */
+  @GetMapping("api/jobs/{id}")
+  @ResponseBody
+  public ResponseEntity<Job> getJob(@PathVariable Integer id) {
+    return jobRepository.findById(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Pages through all jobs in ID order using keyset pagination.
+   * Each page is a seek on the primary key, so deep pages cost the same as the first.
+   *
+   * @param after the last job ID of the previous page (0 or omitted for the first page)
+   * @param limit the page size (defaults to {@value KeysetPage#DEFAULT_LIMIT}, capped at {@value KeysetPage#MAX_LIMIT})
+   * @return the page of jobs and the cursor for the next page
+   */
+  @GetMapping("api/jobs/page")
+  @ResponseBody
+  public KeysetPage<Job> getJobPage(
+    @RequestParam(defaultValue = "0") int after,
+    @RequestParam(required = false) Integer limit
+  ) {
+    int size = KeysetPage.clampLimit(limit);
+    return KeysetPage.of(jobRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1)), size, Job::getId);
+  }
+
+  /**
+   * Returns the jobs created, updated or deleted since a client-held cursor.
+   * Lets clients keep their view in sync with a cost proportional to the number
+   * of changes instead of reloading every job.
+   *
+   * @param since the cursor returned by the previous call; omit to get a starting cursor
+   * @return the changed jobs, the IDs of deleted jobs and the next cursor
+   */
+  @GetMapping("api/jobs/changes")
+  @ResponseBody
+  public JobChanges getJobChanges(@RequestParam(required = false) Long since) {
+    return jobService.getChangesSince(since);
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of job changes.
+   * Emits "created" and "updated" events carrying the job, and "deleted" events
+   * carrying {@code {"id": ...}}, after the change has been committed.
+   *
+   * @return the emitter the client's stream is written to
+   */
+  @GetMapping(value = "api/jobs/stream", produces = "text/event-stream")
+  @ResponseBody
+  public SseEmitter streamJobChanges() {
+    return broadcaster.subscribe();
   }
 
   /**
@@ -65,12 +184,10 @@ public class JobController {
     if (job.getStatus() == null || job.getStatus().getId() == null) {
       return ResponseEntity.badRequest().build();
     }
-    // Verify the status exists in the database
-    JobStatus status = statusRepository
-      .findById(job.getStatus().getId())
-      .orElseThrow(() -> new IllegalArgumentException("Invalid status_id"));
-    job.setStatus(status);
+    // Verify the status exists (in memory, no query)
+    job.setStatus(statusRegistry.resolve(job.getStatus().getId()));
     Job saved = jobRepository.save(job);
+    eventPublisher.publishEvent(JobChangedEvent.created(saved));
     return ResponseEntity.ok(saved);
   }
 
@@ -80,35 +197,130 @@ public class JobController {
    *
    * @param id  the ID of the job to update
    * @param job the job object containing updated values
-   * @return ResponseEntity containing the updated job if found, or a not found response
+   * @return ResponseEntity containing the updated job if found, or a not found response;
+   *         409 with the current job if the body carries a version someone else has moved past,
+   *         or if someone else saved the job while this update was being written
    * @throws IllegalArgumentException if the provided status_id is invalid
    */
   @PutMapping("api/jobs/{id}")
   @ResponseBody
   public ResponseEntity<Job> updateJob(@PathVariable Integer id, @RequestBody Job job) {
+    try {
+      return jobRepository
+        .findById(id)
+        .map((existing) -> {
+          // Someone else saved the job after this client loaded it: don't overwrite their change
+          if (job.getVersion() != null && !job.getVersion().equals(existing.getVersion())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(existing);
+          }
+
+          // Update all job fields
+          existing.setTitle(job.getTitle());
+          existing.setCustomer_name(job.getCustomer_name());
+          existing.setCustomer_phone(job.getCustomer_phone());
+          existing.setJob_description(job.getJob_description());
+          existing.setWork_time_minutes(job.getWork_time_minutes());
+          existing.setPrice_per_minute(job.getPrice_per_minute());
+          existing.setDate(job.getDate());
+
+          // Update status if provided
+          if (job.getStatus() != null && job.getStatus().getId() != null) {
+            existing.setStatus(statusRegistry.resolve(job.getStatus().getId()));
+          }
+
+          Job updated = jobRepository.save(existing);
+          eventPublisher.publishEvent(JobChangedEvent.updated(updated));
+          return ResponseEntity.ok(updated);
+        })
+        .orElseGet(() -> ResponseEntity.notFound().build());
+    } catch (ObjectOptimisticLockingFailureException e) {
+      // Saved by someone else between the load and the save
+      return conflictOrNotFound(id);
+    }
+  }
+
+  /**
+   * Moves a job and/or changes its duration, as when it is dragged or resized in the calendar.
+   *
+   * <p>One conditional {@code UPDATE ... WHERE id = ? AND version = ? RETURNING *}: the
+   * job is not loaded first, and the updated job comes back in the same round trip.</p>
+   *
+   * @param id    the ID of the job to reschedule
+   * @param patch the new date and/or duration, and the version the client last saw
+   * @return 200 with the updated job; 409 with the current job if it was changed since
+   *         that version; 404 if it does not exist; 400 if the request is incomplete
+   */
+  @PatchMapping("api/jobs/{id}/schedule")
+  @ResponseBody
+  public ResponseEntity<Job> rescheduleJob(@PathVariable Integer id, @RequestBody JobSchedulePatch patch) {
+    try {
+      return jobService.rescheduleJob(id, patch).map(ResponseEntity::ok).orElseGet(() -> conflictOrNotFound(id));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Changes the status of a job with one conditional UPDATE, like {@link #rescheduleJob}.
+   *
+   * @param id    the ID of the job to update
+   * @param patch the new status ID and the version the client last saw
+   * @return 200 with the updated job; 409 with the current job if it was changed since
+   *         that version; 404 if it does not exist; 400 if the status is invalid
+   */
+  @PatchMapping("api/jobs/{id}/status")
+  @ResponseBody
+  public ResponseEntity<Job> changeJobStatus(@PathVariable Integer id, @RequestBody JobStatusPatch patch) {
+    try {
+      return jobService.changeJobStatus(id, patch).map(ResponseEntity::ok).orElseGet(() -> conflictOrNotFound(id));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Moves every job in a time window by the same offset, as when a technician is off sick.
+   *
+   * <p>One set-based {@code UPDATE} in one transaction, however many jobs match. Each moved
+   * job's version is incremented, and every change is pushed to the calendars.</p>
+   *
+   * @param request the window, an optional status filter and the offset in minutes
+   * @return 200 with the IDs of the moved jobs; 400 if the request is incomplete or the status is invalid
+   */
+  @PostMapping("api/jobs/bulk/reschedule")
+  @ResponseBody
+  public ResponseEntity<List<Integer>> rescheduleJobs(@RequestBody JobBulkReschedule request) {
+    try {
+      return ResponseEntity.ok(jobService.rescheduleJobs(request));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Gives many jobs the same status, as when every finished job is picked up at closing time.
+   *
+   * <p>One set-based {@code UPDATE}, like {@link #rescheduleJobs}. Jobs that already have
+   * the status are not touched.</p>
+   *
+   * @param request the job IDs and the new status ID
+   * @return 200 with the IDs of the changed jobs; 400 if the request is incomplete or the status is invalid
+   */
+  @PostMapping("api/jobs/bulk/status")
+  @ResponseBody
+  public ResponseEntity<List<Integer>> changeJobStatuses(@RequestBody JobBulkStatus request) {
+    try {
+      return ResponseEntity.ok(jobService.changeJobStatuses(request));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /// A conditional update matched no row: the job is gone, or its version has moved on
+  private ResponseEntity<Job> conflictOrNotFound(Integer id) {
     return jobRepository
       .findById(id)
-      .map((existing) -> {
-        // Update all job fields
-        existing.setTitle(job.getTitle());
-        existing.setCustomer_name(job.getCustomer_name());
-        existing.setCustomer_phone(job.getCustomer_phone());
-        existing.setJob_description(job.getJob_description());
-        existing.setWork_time_minutes(job.getWork_time_minutes());
-        existing.setPrice_per_minute(job.getPrice_per_minute());
-        existing.setDate(job.getDate());
-
-        // Update status if provided
-        if (job.getStatus() != null && job.getStatus().getId() != null) {
-          JobStatus status = statusRepository
-            .findById(job.getStatus().getId())
-            .orElseThrow(() -> new IllegalArgumentException("Invalid status_id"));
-          existing.setStatus(status);
-        }
-
-        Job updated = jobRepository.save(existing);
-        return ResponseEntity.ok(updated);
-      })
+      .map((current) -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
       .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
@@ -118,34 +330,80 @@ public class JobController {
    *
    * @param id  the ID of the job to update
    * @param job the job object containing the new description
-   * @return ResponseEntity containing the updated job if found, or a not found response
+   * @return ResponseEntity containing the updated job if found, or a not found response;
+   *         409 with the current job if someone else saved it while this update was being written
    */
   @PutMapping("api/jobs/{id}/description")
   @ResponseBody
   public ResponseEntity<Job> updateJobDesc(@PathVariable Integer id, @RequestBody Job job) {
-    return jobRepository
-      .findById(id)
-      .map((existing) -> {
-        // Update only the description field
-        existing.setJob_description(job.getJob_description());
+    try {
+      return jobRepository
+        .findById(id)
+        .map((existing) -> {
+          // Update only the description field
+          existing.setJob_description(job.getJob_description());
 
-        Job updated = jobRepository.save(existing);
-        return ResponseEntity.ok(updated);
-      })
-      .orElseGet(() -> ResponseEntity.notFound().build());
+          Job updated = jobRepository.save(existing);
+          eventPublisher.publishEvent(JobChangedEvent.updated(updated));
+          return ResponseEntity.ok(updated);
+        })
+        .orElseGet(() -> ResponseEntity.notFound().build());
+    } catch (ObjectOptimisticLockingFailureException e) {
+      return conflictOrNotFound(id);
+    }
   }
 
-  // todo: Aad logic so that if the "link" already exists, a new should not be added but the amount should be updated.
-  @PostMapping("/api/repairs/addProduct")
-  public ResponseEntity<String> addProductsToRepair(@RequestBody List<Map<String, Object>> dataList) {
-    for (Map<String, Object> data : dataList) {
-      Integer repairId = (Integer) data.get("repairId");
-      Integer productId = (Integer) data.get("productId");
-      Integer quantity = (Integer) data.getOrDefault("quantity", 1);
+  /**
+   * Deletes a job and the parts linked to it.
+   * A tombstone is recorded so clients syncing through the change feed drop the job too.
+   *
+   * @param id the ID of the job to delete
+   * @return 204 No Content if deleted, or 404 Not Found if the job does not exist
+   */
+  @DeleteMapping("api/jobs/{id}")
+  @ResponseBody
+  public ResponseEntity<Void> deleteJob(@PathVariable Integer id) {
+    if (jobService.deleteJob(id)) return ResponseEntity.noContent().build();
+    return ResponseEntity.notFound().build();
+  }
 
-      jobService.addProductToRepair(repairId, productId, quantity);
+  /**
+   * Archives closed jobs now, instead of waiting for the nightly run.
+   * Picked-up jobs older than {@code app.archive.after-days} are moved to the archive with their parts.
+   *
+   * @param id if given, only these jobs are considered
+   * @return 200 with the number of jobs archived, or 409 if archiving is already running
+   */
+  @PostMapping("api/jobs/archive")
+  @ResponseBody
+  public ResponseEntity<Integer> archiveJobs(@RequestParam(required = false) List<Integer> id) {
+    try {
+      return ResponseEntity.ok(id == null ? archiver.archiveClosedJobs() : archiver.archiveClosedJobs(id));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  // Adds all lines in one transaction; a product already on the repair only gets its quantity increased.
+  @PostMapping("/api/repairs/addProduct")
+  public ResponseEntity<String> addProductsToRepair(@RequestBody List<RepairPartRequest> dataList) {
+    try {
+      jobService.addProductsToRepairs(dataList);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
     }
 
     return ResponseEntity.ok("Products added to repair successfully");
   }
+
+  /**
+   * Removes a product from a repair and releases its stock reservation.
+   *
+   * @return 204 if the product was removed, or 404 if it is not on the repair
+   */
+  @DeleteMapping("/api/repairs/{repairId}/products/{productId}")
+  public ResponseEntity<Void> removeProductFromRepair(@PathVariable int repairId, @PathVariable int productId) {
+    if (jobService.removeProductFromRepair(repairId, productId)) return ResponseEntity.noContent().build();
+    return ResponseEntity.notFound().build();
+  }
 }
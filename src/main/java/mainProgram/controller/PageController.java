@@ -2,16 +2,26 @@ package mainProgram.controller; // Project Organization
 
 /* --- Imports --- */
 
+import java.time.LocalDate;
+import java.util.Set;
 import mainProgram.repository.JobPartRepository;
 import mainProgram.repository.JobRepository;
+import mainProgram.repository.JobSpecifications;
 import mainProgram.repository.ProductRepository;
 import mainProgram.services.JobService;
 import mainProgram.table.Job;
+import mainProgram.table.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /* --- PageController Class --- */
 // Controller responsible for serving HTML pages (views) for the application.
@@ -21,6 +31,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequestMapping("/")
 public class PageController {
 
+  // Product list paging: default rows per page, upper bound, and the columns that may be sorted on
+  private static final int PRODUCT_PAGE_SIZE = 7;
+  private static final int MAX_PRODUCT_PAGE_SIZE = 100;
+  private static final Set<String> PRODUCT_SORT_FIELDS = Set.of("productNumber", "name", "EAN", "type", "price");
+
+  // Job list paging: default rows per page and upper bound
+  private static final int JOB_PAGE_SIZE = 50;
+  private static final int MAX_JOB_PAGE_SIZE = 200;
+
   // Attributes
   private final JobRepository jobRepository;
   private final JobService jobService;
@@ -78,30 +97,114 @@ public class PageController {
     return "jobDetails";
   }
 
-  // Displays the product list page with all products.
-  // Populates the model with a list of all products for rendering in the template.
+  // Displays the product list page, one page of products at a time.
+  // Paging, sorting and filtering happen in the database, so only the visible rows are loaded and rendered.
+  /** @param q optional search text matched against Varenr, Navn, EAN and Type **/
+  /** @param page zero-based page number **/
+  /** @param size rows per page **/
+  /** @param sort the column to sort on (productNumber, name, EAN, type or price) **/
+  /** @param dir the sort direction (asc or desc) **/
   /** @param model the Spring MVC model to pass data to the view **/
   /**
    * @return the name of the product list template (products.html)
    **/
   @GetMapping("produktliste")
-  public String products(Model model) {
-    // Fetch all products from the database
-    model.addAttribute("products", productRepository.findAll());
+  public String products(
+    @RequestParam(defaultValue = "") String q,
+    @RequestParam(defaultValue = "0") int page,
+    @RequestParam(defaultValue = "" + PRODUCT_PAGE_SIZE) int size,
+    @RequestParam(defaultValue = "name") String sort,
+    @RequestParam(defaultValue = "asc") String dir,
+    Model model
+  ) {
+    // Only allow known columns, so the sort parameter can't reach arbitrary properties
+    String sortField = PRODUCT_SORT_FIELDS.contains(sort) ? sort : "name";
+    Sort.Direction direction = "desc".equalsIgnoreCase(dir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    int pageSize = Math.max(1, Math.min(size, MAX_PRODUCT_PAGE_SIZE));
+    // Secondary sort on id keeps the order stable between pages when values repeat
+    PageRequest request = PageRequest.of(
+      Math.max(page, 0),
+      pageSize,
+      Sort.by(direction, sortField).and(Sort.by("id"))
+    );
+
+    String query = q.trim();
+    Page<Product> products = query.isEmpty()
+      ? productRepository.findByArchivedAtIsNull(request)
+      : productRepository.search(query, request);
+
+    // Show a window of page links around the current page instead of one link per page
+    int current = products.getNumber();
+    int lastPage = Math.max(products.getTotalPages() - 1, 0);
+
+    model.addAttribute("products", products.getContent());
+    model.addAttribute("page", products);
+    model.addAttribute("q", query);
+    model.addAttribute("size", pageSize);
+    model.addAttribute("sort", sortField);
+    model.addAttribute("dir", direction == Sort.Direction.DESC ? "desc" : "asc");
+    model.addAttribute("pageWindowStart", Math.max(current - 2, 0));
+    model.addAttribute("pageWindowEnd", Math.min(current + 2, lastPage));
 
     return "products";
   }
 
-  // Displays the job list page with all jobs sorted by date in ascending order.
-  // Populates the model with a list of all jobs for rendering in the template.
+  // Displays the job list page, one page of jobs sorted by date in ascending order.
+  // Filtering and paging happen in the database (backed by the (date, status_id) index),
+  // so the page only renders the rows that are shown, however many jobs exist.
+  /** @param filter "active" (not picked up), "completed" (picked up) or "all" **/
+  /** @param status optional status ID to narrow the list further **/
+  /** @param from optional first day to include **/
+  /** @param to optional last day to include **/
+  /** @param page zero-based page number **/
+  /** @param size rows per page **/
   /** @param model the Spring MVC model to pass data to the view **/
   /**
    * @return the name of the job list template (jobliste.html)
    **/
   @GetMapping("jobliste")
-  public String jobliste(Model model) {
-    // Fetch all jobs ordered by date (earliest first)
-    model.addAttribute("jobs", jobRepository.findAllByOrderByDateAsc());
+  public String jobliste(
+    @RequestParam(defaultValue = "active") String filter,
+    @RequestParam(required = false) Short status,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+    @RequestParam(defaultValue = "0") int page,
+    @RequestParam(defaultValue = "" + JOB_PAGE_SIZE) int size,
+    Model model
+  ) {
+    Specification<Job> spec = switch (filter) {
+      case "completed" -> JobSpecifications.isClosed();
+      case "all" -> null;
+      default -> JobSpecifications.isOpen();
+    };
+    // The date inputs are whole days, so "to" includes the entire last day
+    spec = Specification.allOf(
+      spec,
+      JobSpecifications.hasStatus(status),
+      JobSpecifications.dateFrom(from != null ? from.atStartOfDay() : null),
+      JobSpecifications.dateBefore(to != null ? to.plusDays(1).atStartOfDay() : null)
+    );
+
+    int pageSize = Math.max(1, Math.min(size, MAX_JOB_PAGE_SIZE));
+    // Earliest first, with id as a tiebreaker so rows don't move between pages
+    PageRequest request = PageRequest.of(Math.max(page, 0), pageSize, Sort.by("date").and(Sort.by("id")));
+    Page<Job> jobs = jobRepository.findAll(spec, request);
+
+    int current = jobs.getNumber();
+    int lastPage = Math.max(jobs.getTotalPages() - 1, 0);
+
+    model.addAttribute("jobs", jobs.getContent());
+    model.addAttribute("page", jobs);
+    model.addAttribute("currentFilter", switch (filter) {
+      case "completed", "all" -> filter;
+      default -> "active";
+    });
+    model.addAttribute("status", status);
+    model.addAttribute("from", from);
+    model.addAttribute("to", to);
+    model.addAttribute("size", pageSize);
+    model.addAttribute("pageWindowStart", Math.max(current - 2, 0));
+    model.addAttribute("pageWindowEnd", Math.min(current + 2, lastPage));
 
     return "jobliste";
   }
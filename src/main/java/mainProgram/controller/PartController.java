@@ -1,12 +1,14 @@
 package mainProgram.controller;
 
-import java.util.List;
+import mainProgram.dto.KeysetPage;
 import mainProgram.repository.JobPartRepository;
 import mainProgram.repository.ProductRepository;
 import mainProgram.table.JobPart;
 import mainProgram.table.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,15 +26,33 @@ public class PartController {
     this.jobPartRepository = jobPartRepository;
   }
 
+  // Pages through products by ID: GET /api/part?after=<last id>&limit=<n>
   @GetMapping("api/part")
   @ResponseBody
-  public List<Product> getAllParts() {
-    return productRepository.findAll();
+  public KeysetPage<Product> getAllParts(
+    @RequestParam(defaultValue = "0") int after,
+    @RequestParam(required = false) Integer limit
+  ) {
+    int size = KeysetPage.clampLimit(limit);
+    return KeysetPage.of(
+      productRepository.findByArchivedAtIsNullAndIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1)),
+      size,
+      Product::getId
+    );
   }
 
+  // Pages through job parts by ID: GET /api/products?after=<last id>&limit=<n>
   @GetMapping("api/products")
   @ResponseBody
-  public List<JobPart> getAllProducts() {
-    return jobPartRepository.findAll();
+  public KeysetPage<JobPart> getAllProducts(
+    @RequestParam(defaultValue = "0") int after,
+    @RequestParam(required = false) Integer limit
+  ) {
+    int size = KeysetPage.clampLimit(limit);
+    return KeysetPage.of(
+      jobPartRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1)),
+      size,
+      JobPart::getId
+    );
   }
 }
@@ -1,10 +1,22 @@
 package mainProgram.controller; // Project Organization
 
+import java.io.IOException;
+import java.net.URI;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import mainProgram.dto.ProductImportStatus;
+import mainProgram.dto.ProductLookupResult;
 import mainProgram.repository.ProductRepository;
+import mainProgram.services.ProductCatalogue;
+import mainProgram.services.ProductImportService;
 import mainProgram.table.Product;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 /* --- PartController --- */
 // REST controller for handling product-related operations.
@@ -13,14 +25,27 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/products") // Base path for all API routes in this controller
 public class ProductController {
 
+  // SQLSTATE of the archived product trigger (see ArchiveSchemaInitializer)
+  private static final String CHECK_VIOLATION = "23514";
+
   // Attributes
   private final ProductRepository productRepository; // Injected repository used for database operations CRUD
+  private final ProductCatalogue productCatalogue; // In-memory EAN / product number lookup
+  private final ProductImportService productImportService; // Background supplier price list imports
 
   // Constructor for Dependency Injection
   // Spring automatically provides an instance of ProductRepository at runtime.
   /** @param productRepository the repository handling CRUD operations for Product entities. **/
-  public ProductController(ProductRepository productRepository) {
+  /** @param productCatalogue the in-memory catalogue used for barcode lookups. **/
+  /** @param productImportService the service importing supplier price lists. **/
+  public ProductController(
+    ProductRepository productRepository,
+    ProductCatalogue productCatalogue,
+    ProductImportService productImportService
+  ) {
     this.productRepository = productRepository;
+    this.productCatalogue = productCatalogue;
+    this.productImportService = productImportService;
   }
 
   // Methods
@@ -35,36 +60,81 @@ public class ProductController {
     return ResponseEntity.ok(savedProduct);
   }
 
+  // Barcode lookup: resolves one scanned code (EAN first, then product number) from memory.
+  // Example: GET /api/products/lookup?code=5701234567890
+  @GetMapping("/lookup")
+  public ResponseEntity<Product> lookupProduct(@RequestParam String code) {
+    return productCatalogue.findByCode(code).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+  }
+
+  // Batch barcode lookup: resolves a whole bag of scanned codes in one round trip.
+  // Example: POST /api/products/lookup with body ["5701234567890", "VN-1042"]
+  @PostMapping("/lookup")
+  public ProductLookupResult lookupProducts(@RequestBody List<String> codes) {
+    return productCatalogue.findByCodes(codes);
+  }
+
+  // Supplier price list import: upload a CSV or JSON file as multipart field "file".
+  // Rows are inserted or updated by EAN (or product number) in the background.
+  // Returns HTTP 202 Accepted with the import status; poll the Location header for progress.
+  // Example: POST /api/products/import with file=prisliste.csv
+  @PostMapping("/import")
+  public ResponseEntity<?> importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+    try {
+      ProductImportStatus status = productImportService.start(file, file.getOriginalFilename(), file.getContentType());
+      return ResponseEntity.accepted().location(URI.create("/api/products/import/" + status.id())).body(status);
+    } catch (IllegalArgumentException e) {
+      // Not a CSV or JSON file
+      return ResponseEntity.badRequest().body(e.getMessage());
+    } catch (IllegalStateException e) {
+      // Only one import runs at a time
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+  }
+
+  // Progress of an import: rows read, imported and rejected, and the rejected rows with the reason.
+  // Example: GET /api/products/import/2f1c...
+  @GetMapping("/import/{id}")
+  public ResponseEntity<ProductImportStatus> importStatus(@PathVariable String id) {
+    return productImportService.status(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+  }
+
   // Get a single product by ID
   @GetMapping("/{id}")
   public ResponseEntity<Product> getProduct(@PathVariable int id) {
     return productRepository.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
   }
 
-  // Deletes a specific product from the database based on its ID.
+  // Deletes a specific product, based on its ID, by archiving it.
+  // The row stays, so jobs that used the product keep their parts; it just leaves lists, searches and lookups.
   // Triggered when a DELETE request is sent to "/api/products/{id}"-
-  // Example: request: DELETE /api/products/5 will delete the product with id "5".
+  // Example: request: DELETE /api/products/5 will archive the product with id "5".
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> deleteProduct(@PathVariable int id) {
-    // Check if a product with the given ID exists before attempting deletion
-    if (productRepository.existsById(id)) {
-      // If the product exists, delete it from the database
-      productRepository.deleteById(id);
-
-      // Return HTTP 204: No Content (indicating success, but no response body needed)
-      return ResponseEntity.noContent().build(); // 204 No Content
-    } else {
-      // Return HTTP 404: Not Found (if the product does not exist in the database)
-      return ResponseEntity.notFound().build(); // 404 if not found
-    }
+    return productRepository
+      .findById(id)
+      .filter((product) -> !product.isArchived())
+      .map((product) -> {
+        product.setArchivedAt(LocalDateTime.now());
+        productRepository.save(product);
+
+        // Return HTTP 204: No Content (indicating success, but no response body needed)
+        return ResponseEntity.noContent().<Void>build(); // 204 No Content
+      })
+      // Return HTTP 404: Not Found (if the product does not exist, or was already deleted)
+      .orElse(ResponseEntity.notFound().build()); // 404 if not found
   }
 
+  // Archived products can't be edited (HTTP 400), like they can't be added to a repair
   @PutMapping("/{id}")
   public ResponseEntity<?> editProduct(@PathVariable int id, @RequestBody Map<String, Object> updates) {
     // Find the product in the database by ID
     return productRepository
       .findById(id)
       .map((product) -> {
+        if (product.isArchived()) {
+          return ResponseEntity.badRequest().body("Product is archived");
+        }
         // Iterate over each field in the updates map and apply the changes
         updates.forEach((field, value) -> {
           switch (field) {
@@ -96,4 +166,14 @@ public class ProductController {
         return ResponseEntity.notFound().build();
       });
   }
+
+  // EAN and productNumber are unique: saving a duplicate returns HTTP 409 Conflict instead of a 500.
+  // A product archived meanwhile is rejected by a trigger (check_violation): HTTP 400, as above.
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<String> handleDuplicateCode(DataIntegrityViolationException e) {
+    if (e.getMostSpecificCause() instanceof SQLException sql && CHECK_VIOLATION.equals(sql.getSQLState())) {
+      return ResponseEntity.badRequest().body("Product is archived");
+    }
+    return ResponseEntity.status(HttpStatus.CONFLICT).body("EAN or product number already exists");
+  }
 }
@@ -0,0 +1,105 @@
+package mainProgram.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import mainProgram.dto.PartsUsageReportRow;
+import mainProgram.dto.RevenueReportRow;
+import mainProgram.dto.StatusReportRow;
+import mainProgram.services.ReportService;
+import mainProgram.services.ReportService.Period;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the management reports, served from the daily rollups.
+ *
+ * <p>Every report takes {@code from} and {@code to} (ISO dates, both inclusive; jobs
+ * are counted on the day they are booked for, status changes on the day they were made) and {@code period} ({@code day},
+ * {@code week} or {@code month}, default month).</p>
+ *
+ * <ul>
+ *   <li>GET /api/reports/revenue - jobs, labour minutes and revenue per period; {@code status} limits it to one status</li>
+ *   <li>GET /api/reports/parts - parts used per period and product type</li>
+ *   <li>GET /api/reports/status - status transitions per period and status</li>
+ *   <li>POST /api/reports/rebuild - recompute the rollups from the jobs; {@code from} and {@code to} limit it to those days</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+  private final ReportService reportService;
+
+  public ReportController(ReportService reportService) {
+    this.reportService = reportService;
+  }
+
+  /**
+   * @return 200 with one row per period that has jobs, or 400 for a missing or reversed range or an unknown period
+   */
+  @GetMapping("/revenue")
+  public ResponseEntity<List<RevenueReportRow>> revenue(
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+    @RequestParam(defaultValue = "month") String period,
+    @RequestParam(required = false) Short status
+  ) {
+    return report(() -> reportService.revenue(Period.parse(period), from, to, status));
+  }
+
+  /**
+   * @return 200 with one row per period and product type, or 400 for a missing or reversed range or an unknown period
+   */
+  @GetMapping("/parts")
+  public ResponseEntity<List<PartsUsageReportRow>> partsUsage(
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+    @RequestParam(defaultValue = "month") String period
+  ) {
+    return report(() -> reportService.partsUsage(Period.parse(period), from, to));
+  }
+
+  /**
+   * @return 200 with one row per period and status, or 400 for a missing or reversed range or an unknown period
+   */
+  @GetMapping("/status")
+  public ResponseEntity<List<StatusReportRow>> statusThroughput(
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+    @RequestParam(defaultValue = "month") String period
+  ) {
+    return report(() -> reportService.statusThroughput(Period.parse(period), from, to));
+  }
+
+  /**
+   * Recomputes the rollups from the live and archived jobs, for all days or only from {@code from} to {@code to}.
+   *
+   * @return 200 with the number of rollup rows written, or 400 if only one bound is given or the range is reversed
+   */
+  @PostMapping("/rebuild")
+  public ResponseEntity<Integer> rebuild(
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+  ) {
+    if (from == null && to == null) return ResponseEntity.ok(reportService.rebuild());
+    try {
+      return ResponseEntity.ok(reportService.rebuild(from, to));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  private static <T> ResponseEntity<List<T>> report(Supplier<List<T>> query) {
+    try {
+      return ResponseEntity.ok(query.get());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
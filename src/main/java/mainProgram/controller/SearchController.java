@@ -1,10 +1,18 @@
 package mainProgram.controller;
 
+import jakarta.servlet.http.HttpSession;
 import java.util.List;
+import java.util.Map;
+import mainProgram.dto.UnifiedSearchResult;
+import mainProgram.services.BaseSearchService;
 import mainProgram.services.JobService;
+import mainProgram.services.SearchCache;
+import mainProgram.services.SearchRequestTracker;
+import mainProgram.services.UnifiedSearchService;
 import mainProgram.services.productService;
 import mainProgram.table.Job;
 import mainProgram.table.Product;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,19 +22,99 @@ public class SearchController {
 
   private final JobService jobService;
   private final productService productService;
+  private final SearchRequestTracker requestTracker;
+  private final UnifiedSearchService unifiedSearchService;
+  private final SearchCache searchCache;
 
-  public SearchController(JobService jobService, productService productService) {
+  public SearchController(
+    JobService jobService,
+    productService productService,
+    SearchRequestTracker requestTracker,
+    UnifiedSearchService unifiedSearchService,
+    SearchCache searchCache
+  ) {
     this.jobService = jobService;
     this.productService = productService;
+    this.requestTracker = requestTracker;
+    this.unifiedSearchService = unifiedSearchService;
+    this.searchCache = searchCache;
   }
 
+  /// Result cache statistics per search source: size, hits, misses, hit rate, evictions, invalidations
+  @GetMapping("/cache/stats")
+  public Map<String, Map<String, Object>> cacheStats() {
+    return searchCache.stats();
+  }
+
+  /// Navbar search: every source at once, in parallel, each capped at `limit` matches.
+  /// Sources slower than `timeoutMillis` are left out and listed in `timedOut`.
+  /// Example: GET /api/search?q=kæde&limit=5&timeoutMillis=500
+  @GetMapping
+  public ResponseEntity<UnifiedSearchResult> searchAll(
+    @RequestParam String q,
+    @RequestParam(required = false) Integer limit,
+    @RequestParam(required = false) Long timeoutMillis,
+    HttpSession session
+  ) {
+    try (SearchRequestTracker.Ticket ticket = requestTracker.begin(session.getId(), "all")) {
+      UnifiedSearchResult result = unifiedSearchService.search(
+        q,
+        BaseSearchService.clampAutocompleteLimit(limit),
+        timeoutMillis,
+        ticket::isSuperseded
+      );
+      if (ticket.isSuperseded()) {
+        return ResponseEntity.noContent().build();
+      }
+      return ResponseEntity.ok(result);
+    }
+  }
+
+  /// Without `limit`: every match. With `limit`: autocomplete mode (see BaseSearchService)
+  /// With `archive=true`: archived jobs instead of current ones (newest first, capped)
   @GetMapping("/job")
-  public List<Job> searchJobs(@RequestParam("q") String query) {
-    return jobService.search(query);
+  public ResponseEntity<List<Job>> searchJobs(
+    @RequestParam("q") String query,
+    @RequestParam(required = false) Integer limit,
+    @RequestParam(defaultValue = "false") boolean archive,
+    HttpSession session
+  ) {
+    if (archive) {
+      return ResponseEntity.ok(jobService.searchArchive(query));
+    }
+    if (limit == null) {
+      return ResponseEntity.ok(jobService.search(query));
+    }
+    return autocomplete(jobService, "job", query, limit, session);
   }
 
   @GetMapping("/repair")
-  public List<Product> searchProduct(@RequestParam String q) {
-    return productService.search(q);
+  public ResponseEntity<List<Product>> searchProduct(
+    @RequestParam String q,
+    @RequestParam(required = false) Integer limit,
+    HttpSession session
+  ) {
+    if (limit == null) {
+      return ResponseEntity.ok(productService.search(q));
+    }
+    return autocomplete(productService, "repair", q, limit, session);
+  }
+
+  /// Runs a bounded query. A newer keystroke from the same session makes it stop early and
+  /// return 204 No Content instead of serializing a result nobody will show.
+  private <T> ResponseEntity<List<T>> autocomplete(
+    BaseSearchService<T> service,
+    String source,
+    String query,
+    int limit,
+    HttpSession session
+  ) {
+    try (SearchRequestTracker.Ticket ticket = requestTracker.begin(session.getId(), source)) {
+      List<T> results = service.autocomplete(query, BaseSearchService.clampAutocompleteLimit(limit), ticket::isSuperseded);
+      if (ticket.isSuperseded()) {
+        return ResponseEntity.noContent().build();
+      }
+      return ResponseEntity.ok(results);
+    }
   }
 }
@@ -0,0 +1,62 @@
+package mainProgram.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read model of a job, holding only what the calendar renders.
+ *
+ * <p>Selected directly by a JPQL constructor expression
+ * ({@link mainProgram.repository.JobRepository#findCalendarJobs}), so Hibernate
+ * returns plain values without hydrating managed {@code Job} entities or keeping
+ * dirty-checking snapshots. The JSON field names match the {@code Job} entity, so
+ * the calendar maps both the same way. Only the first
+ * {@value #DESCRIPTION_PREVIEW_LENGTH} characters of the description are sent,
+ * since the calendar only shows them as a preview.</p>
+ *
+ * @param id                the job ID
+ * @param title             the job title
+ * @param customer_name     the customer name (shown when the job has no title)
+ * @param job_description   the start of the job description
+ * @param date              the scheduled start
+ * @param work_time_minutes the duration in minutes
+ * @param status            the job status
+ * @param version           the job version, sent back when the job is dragged or resized
+ */
+public record CalendarJob(
+  Integer id,
+  String title,
+  String customer_name,
+  String job_description,
+  LocalDateTime date,
+  Integer work_time_minutes,
+  Status status,
+  Long version
+) {
+  /** Number of description characters included in the preview. */
+  public static final int DESCRIPTION_PREVIEW_LENGTH = 120;
+
+  /**
+   * Flat constructor used by the JPQL constructor expression.
+   */
+  public CalendarJob(
+    Integer id,
+    String title,
+    String customer_name,
+    String job_description,
+    LocalDateTime date,
+    Integer work_time_minutes,
+    Short statusId,
+    String statusName,
+    Long version
+  ) {
+    this(id, title, customer_name, job_description, date, work_time_minutes, new Status(statusId, statusName), version);
+  }
+
+  /**
+   * The job status, serialized like the {@code JobStatus} entity.
+   *
+   * @param id   the status ID
+   * @param name the status name
+   */
+  public record Status(Short id, String name) {}
+}
@@ -0,0 +1,14 @@
+package mainProgram.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request body of {@code POST /api/jobs/bulk/reschedule}: moving every job in a time window,
+ * for example a whole day when a technician is off sick.
+ *
+ * @param from          start of the window, inclusive (required)
+ * @param to            end of the window, exclusive (required)
+ * @param statusId      only move jobs with this status, or null for all
+ * @param offsetMinutes how far to move the jobs, in minutes; negative moves them earlier (required)
+ */
+public record JobBulkReschedule(LocalDateTime from, LocalDateTime to, Short statusId, Integer offsetMinutes) {}
@@ -0,0 +1,12 @@
+package mainProgram.dto;
+
+import java.util.List;
+
+/**
+ * Request body of {@code POST /api/jobs/bulk/status}: giving many jobs the same status,
+ * for example every finished job picked up at closing time.
+ *
+ * @param ids      the jobs to change (required)
+ * @param statusId the new status ID (required)
+ */
+public record JobBulkStatus(List<Integer> ids, Short statusId) {}
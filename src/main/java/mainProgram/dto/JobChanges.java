@@ -0,0 +1,23 @@
+package mainProgram.dto;
+
+import java.util.List;
+import mainProgram.table.Job;
+
+/**
+ * Response body of the incremental job change feed ({@code /api/jobs/changes}).
+ *
+ * <p>Clients apply {@code changed} as upserts and {@code deleted} as removals,
+ * then send {@code cursor} back as {@code since} on their next request. The
+ * cursor is inclusive, so a job changed around the time of a request may be
+ * returned twice; applying it again is harmless.</p>
+ *
+ * <p>If {@code resync} is true, deletes older than the client's cursor have been
+ * pruned: the lists are empty, and the client must reload all jobs before syncing
+ * on from {@code cursor}.</p>
+ *
+ * @param cursor  the value to pass as {@code since} on the next request
+ * @param resync  whether the client's cursor is too old to sync from
+ * @param changed the jobs created or updated since the previous cursor
+ * @param deleted the IDs of the jobs deleted since the previous cursor
+ */
+public record JobChanges(long cursor, boolean resync, List<Job> changed, List<Integer> deleted) {}
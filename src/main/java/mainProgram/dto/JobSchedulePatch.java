@@ -0,0 +1,17 @@
+package mainProgram.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+/**
+ * Request body of {@code PATCH /api/jobs/{id}/schedule}: moving or resizing a job in the calendar.
+ *
+ * @param date            the new start, or null to keep it
+ * @param workTimeMinutes the new duration in minutes ({@code work_time_minutes}), or null to keep it
+ * @param version         the job version the client last saw (required)
+ */
+public record JobSchedulePatch(
+  LocalDateTime date,
+  @JsonProperty("work_time_minutes") Integer workTimeMinutes,
+  Long version
+) {}
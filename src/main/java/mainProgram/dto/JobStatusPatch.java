@@ -0,0 +1,9 @@
+package mainProgram.dto;
+
+/**
+ * Request body of {@code PATCH /api/jobs/{id}/status}.
+ *
+ * @param statusId the new status ID
+ * @param version  the job version the client last saw (required)
+ */
+public record JobStatusPatch(Short statusId, Long version) {}
@@ -0,0 +1,10 @@
+package mainProgram.dto;
+
+/**
+ * A job status as held by {@link mainProgram.services.JobStatusRegistry}: a plain,
+ * immutable copy of one job_status row, never attached to a persistence context.
+ *
+ * @param id   the status ID
+ * @param name the status name
+ */
+public record JobStatusView(short id, String name) {}
@@ -0,0 +1,52 @@
+package mainProgram.dto;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ *
+ * <p>Pages are requested with {@code after=<id>&limit=<n>} and are fetched with a
+ * seek predicate ({@code WHERE id > :after ORDER BY id LIMIT :n}) instead of an
+ * OFFSET, so every page costs the same no matter how deep into the table it is.</p>
+ *
+ * @param items     the rows on this page, ordered by ID
+ * @param nextAfter the value to pass as {@code after} for the next page, or {@code null} on the last page
+ * @param <T>       the row type
+ */
+public record KeysetPage<T>(List<T> items, Integer nextAfter) {
+  /** Page size used when the client does not ask for one. */
+  public static final int DEFAULT_LIMIT = 100;
+
+  /** Largest page size a client may ask for; caps the heap used per request. */
+  public static final int MAX_LIMIT = 500;
+
+  /**
+   * Clamps a requested page size to {@code 1..MAX_LIMIT}, defaulting to {@code DEFAULT_LIMIT}.
+   *
+   * @param limit the requested page size, may be {@code null}
+   * @return the page size to use
+   */
+  public static int clampLimit(Integer limit) {
+    if (limit == null) return DEFAULT_LIMIT;
+    return Math.max(1, Math.min(limit, MAX_LIMIT));
+  }
+
+  /**
+   * Builds a page from a query that fetched up to {@code limit + 1} rows.
+   * The extra row only signals that another page exists and is not returned.
+   *
+   * @param fetched the rows returned by the seek query
+   * @param limit   the page size
+   * @param idOf    extracts the key used as the cursor
+   * @param <T>     the row type
+   * @return the page
+   */
+  public static <T> KeysetPage<T> of(List<T> fetched, int limit, ToIntFunction<T> idOf) {
+    if (fetched.size() <= limit) {
+      return new KeysetPage<>(fetched, null);
+    }
+    List<T> items = fetched.subList(0, limit);
+    return new KeysetPage<>(List.copyOf(items), idOf.applyAsInt(items.get(limit - 1)));
+  }
+}
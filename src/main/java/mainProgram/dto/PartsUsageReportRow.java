@@ -0,0 +1,12 @@
+package mainProgram.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Parts of one product type used in one period ({@code GET /api/reports/parts}).
+ *
+ * @param period   the first day of the period (a Monday for weeks)
+ * @param type     the product type, or an empty string for products without one
+ * @param quantity the number of parts used on jobs dated in the period
+ */
+public record PartsUsageReportRow(LocalDate period, String type, long quantity) {}
@@ -0,0 +1,50 @@
+package mainProgram.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of one supplier catalogue import ({@code GET /api/products/import/{id}}).
+ *
+ * @param id           the import ID returned when the file was uploaded
+ * @param fileName     the uploaded file name
+ * @param state        RUNNING, COMPLETED or FAILED (FAILED means the file itself could not be read)
+ * @param progress     share of the file read so far, from 0 to 1
+ * @param rowsRead     data rows read from the file
+ * @param rowsImported rows inserted or updated (including rows that were already up to date)
+ * @param rowsFailed   rows rejected by validation or by the database
+ * @param errors       the first rejected rows with the reason, at most {@value #MAX_ERRORS}
+ * @param message      why the import failed, if it did
+ * @param startedAt    when the import started
+ * @param finishedAt   when the import finished, or null while it runs
+ */
+public record ProductImportStatus(
+  String id,
+  String fileName,
+  State state,
+  double progress,
+  long rowsRead,
+  long rowsImported,
+  long rowsFailed,
+  List<RowError> errors,
+  String message,
+  LocalDateTime startedAt,
+  LocalDateTime finishedAt
+) {
+  /** Maximum number of row errors kept per import; the rest are only counted. */
+  public static final int MAX_ERRORS = 1000;
+
+  public enum State {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+  }
+
+  /**
+   * One rejected row.
+   *
+   * @param row     the line number in a CSV file (the header is line 1), or the 1-based position in a JSON array
+   * @param message why the row was rejected
+   */
+  public record RowError(long row, String message) {}
+}
@@ -0,0 +1,13 @@
+package mainProgram.dto;
+
+import java.util.List;
+import java.util.Map;
+import mainProgram.table.Product;
+
+/**
+ * Response body of a batch barcode lookup ({@code POST /api/products/lookup}).
+ *
+ * @param found   the resolved products, keyed by the code that was scanned, in scan order
+ * @param missing the scanned codes that matched no EAN or product number
+ */
+public record ProductLookupResult(Map<String, Product> found, List<String> missing) {}
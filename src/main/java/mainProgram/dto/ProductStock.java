@@ -0,0 +1,19 @@
+package mainProgram.dto;
+
+/**
+ * The stock of one product ({@code /api/inventory}).
+ *
+ * @param productId     the product ID
+ * @param productNumber the product number (Varenr)
+ * @param name          the product name
+ * @param onHand        parts on the shelf, including the reserved ones
+ * @param reserved      parts on repairs that haven't been picked up yet
+ * @param available     parts on the shelf that aren't reserved ({@code onHand - reserved})
+ */
+public record ProductStock(int productId, String productNumber, String name, int onHand, int reserved, int available) {
+  /// The same stock with reservations that are not in the database yet added
+  public ProductStock withPendingReservations(int pending) {
+    if (pending == 0) return this;
+    return new ProductStock(productId, productNumber, name, onHand, reserved + pending, available - pending);
+  }
+}
@@ -0,0 +1,15 @@
+package mainProgram.dto;
+
+/**
+ * One line of a request to add products to repairs ({@code POST /api/repairs/addProduct}).
+ *
+ * @param repairId  the job (repair) to add the product to
+ * @param productId the product to add
+ * @param quantity  the number of units to add, at least 1; {@code null} means 1
+ */
+public record RepairPartRequest(Integer repairId, Integer productId, Integer quantity) {
+  /** @return the quantity to add, defaulting to 1 */
+  public int quantityOrDefault() {
+    return quantity == null ? 1 : quantity;
+  }
+}
@@ -0,0 +1,22 @@
+package mainProgram.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One period of the revenue report ({@code GET /api/reports/revenue}).
+ *
+ * @param period        the first day of the period (a Monday for weeks)
+ * @param jobs          the number of jobs dated in the period
+ * @param labourMinutes the work time of those jobs, in minutes
+ * @param labourRevenue the labour price of those jobs
+ * @param partsRevenue  the price of the parts used on those jobs
+ * @param revenue       labour and parts together, excluding VAT
+ */
+public record RevenueReportRow(
+  LocalDate period,
+  long jobs,
+  long labourMinutes,
+  double labourRevenue,
+  double partsRevenue,
+  double revenue
+) {}
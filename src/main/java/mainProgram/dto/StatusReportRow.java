@@ -0,0 +1,13 @@
+package mainProgram.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Jobs given one status in one period ({@code GET /api/reports/status}).
+ *
+ * @param period   the first day of the period (a Monday for weeks)
+ * @param statusId the status ID
+ * @param status   the status name
+ * @param jobs     the number of times a job was created with or changed to this status during the period
+ */
+public record StatusReportRow(LocalDate period, short statusId, String status, long jobs) {}
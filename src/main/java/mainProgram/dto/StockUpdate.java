@@ -0,0 +1,9 @@
+package mainProgram.dto;
+
+/**
+ * Request body of the inventory updates.
+ *
+ * @param quantity the counted number of parts on the shelf ({@code PUT /api/inventory/{productId}}),
+ *                 or the number of parts received ({@code POST /api/inventory/{productId}/delivery})
+ */
+public record StockUpdate(Integer quantity) {}
@@ -0,0 +1,13 @@
+package mainProgram.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response body of the unified search ({@code GET /api/search}).
+ *
+ * @param results  the matches per search source (e.g. "job", "repair"), each capped at the requested limit
+ * @param timedOut the sources that did not answer within the timeout; their results are left out
+ * @param failed   the sources that threw an error; their results are left out
+ */
+public record UnifiedSearchResult(Map<String, List<?>> results, List<String> timedOut, List<String> failed) {}
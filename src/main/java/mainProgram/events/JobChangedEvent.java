@@ -0,0 +1,41 @@
+package mainProgram.events;
+
+import mainProgram.table.Job;
+
+/**
+ * Application event published whenever a job is created, updated or deleted.
+ *
+ * <p>Listeners receive it after the surrounding transaction has committed (see
+ * {@link mainProgram.services.JobEventBroadcaster}), so they never push changes
+ * that were rolled back.</p>
+ *
+ * @param type  what happened to the job
+ * @param jobId the ID of the affected job
+ * @param job   the job as saved, or {@code null} for deletions
+ */
+public record JobChangedEvent(Type type, Integer jobId, Job job) {
+  /**
+   * The kind of change. The lowercase name is used as the SSE event name.
+   */
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED;
+
+    public String eventName() {
+      return name().toLowerCase();
+    }
+  }
+
+  public static JobChangedEvent created(Job job) {
+    return new JobChangedEvent(Type.CREATED, job.getId(), job);
+  }
+
+  public static JobChangedEvent updated(Job job) {
+    return new JobChangedEvent(Type.UPDATED, job.getId(), job);
+  }
+
+  public static JobChangedEvent deleted(Integer jobId) {
+    return new JobChangedEvent(Type.DELETED, jobId, null);
+  }
+}
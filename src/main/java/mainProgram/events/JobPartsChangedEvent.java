@@ -0,0 +1,25 @@
+package mainProgram.events;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application event published when parts are added to or removed from repairs.
+ *
+ * <p>Listeners receive it after the surrounding transaction has committed, so
+ * stock is only reserved for parts that were actually saved (see
+ * {@link mainProgram.services.InventoryService}).</p>
+ *
+ * @param quantities the change in quantity per product ID: positive for added parts, negative for removed ones
+ */
+public record JobPartsChangedEvent(Map<Integer, Integer> quantities) {
+  public static JobPartsChangedEvent added(Map<Integer, Integer> quantities) {
+    return new JobPartsChangedEvent(Map.copyOf(quantities));
+  }
+
+  public static JobPartsChangedEvent removed(Map<Integer, Integer> quantities) {
+    Map<Integer, Integer> negated = new HashMap<>();
+    quantities.forEach((productId, quantity) -> negated.put(productId, -quantity));
+    return new JobPartsChangedEvent(negated);
+  }
+}
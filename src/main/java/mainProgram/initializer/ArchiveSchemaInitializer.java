@@ -0,0 +1,120 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the archive tables that closed jobs are moved to, and keeps their columns
+ * in line with the live tables.
+ *
+ * <p>{@code jobs_archive} and {@code job_part_archive} are not mapped by Hibernate:
+ * they hold the same columns as {@code jobs} and {@code job_part_jointable}, plus the
+ * time the row was archived. This component runs at startup, after Hibernate has
+ * updated the live tables. It creates the archive tables if they are missing, and
+ * adds any column the live table has gained since, so rows can always be copied
+ * across column by column (see {@link mainProgram.repository.JobArchiveRepository}).</p>
+ *
+ * <p>The archive tables have no foreign keys: archived parts keep pointing at their
+ * products, which are archived instead of deleted (see {@link mainProgram.table.Product}).
+ * An archived product can't be added to a repair any more: a trigger rejects new
+ * {@code job_part_jointable} lines for it, whichever way they are written. Another
+ * trigger rejects changes to an archived product itself.</p>
+ */
+@Component
+// The live tables must exist first, with their generated total and change feed columns
+@DependsOn({ "entityManagerFactory", "jobTotalsSchemaInitializer", "changeFeedSchemaInitializer" })
+public class ArchiveSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ArchiveSchemaInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ArchiveSchemaInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      createArchive("jobs", "jobs_archive");
+      createArchive("job_part_jointable", "job_part_archive");
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_job_part_archive_job ON job_part_archive (job_id)");
+      // The report's product type trigger finds a product's archived parts by it
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_job_part_archive_product ON job_part_archive (product_id)");
+    } catch (Exception e) {
+      logger.error("Failed to create or update the job archive tables", e);
+    }
+    try {
+      rejectArchivedProducts();
+    } catch (Exception e) {
+      logger.error("Failed to add the archived product checks", e);
+    }
+  }
+
+  /// Also fires for INSERT ... ON CONFLICT DO UPDATE, so adding to an existing line is rejected too
+  private void rejectArchivedProducts() {
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION job_part_reject_archived_product() RETURNS trigger AS $$
+      BEGIN
+        IF EXISTS (SELECT 1 FROM products WHERE id = NEW.product_id AND archived_at IS NOT NULL) THEN
+          RAISE EXCEPTION 'Product % is archived', NEW.product_id USING ERRCODE = 'check_violation';
+        END IF;
+        RETURN NEW;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_job_part_reject_archived_product ON job_part_jointable");
+    jdbcTemplate.execute(
+      "CREATE TRIGGER trg_job_part_reject_archived_product BEFORE INSERT ON job_part_jointable " +
+      "FOR EACH ROW EXECUTE FUNCTION job_part_reject_archived_product()"
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION product_reject_archived_change() RETURNS trigger AS $$
+      BEGIN
+        RAISE EXCEPTION 'Product % is archived', OLD.id USING ERRCODE = 'check_violation';
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_product_reject_archived_change ON products");
+    jdbcTemplate.execute(
+      "CREATE TRIGGER trg_product_reject_archived_change BEFORE UPDATE ON products " +
+      "FOR EACH ROW WHEN (OLD.archived_at IS NOT NULL) EXECUTE FUNCTION product_reject_archived_change()"
+    );
+  }
+
+  private void createArchive(String table, String archive) {
+    jdbcTemplate.execute(
+      "CREATE TABLE IF NOT EXISTS " + archive + " (" +
+      "LIKE " + table + " INCLUDING DEFAULTS, archived_at timestamp NOT NULL, PRIMARY KEY (id))"
+    );
+    // Columns added to the live table since the archive was created; nullable, as older archived rows lack them
+    List<String> missing = jdbcTemplate.queryForList(
+      """
+      SELECT format('ALTER TABLE %I ADD COLUMN %I %s', ?, a.attname, format_type(a.atttypid, a.atttypmod))
+      FROM pg_attribute a
+      WHERE a.attrelid = ?::regclass AND a.attnum > 0 AND NOT a.attisdropped
+        AND NOT EXISTS (
+          SELECT 1 FROM pg_attribute b
+          WHERE b.attrelid = ?::regclass AND b.attname = a.attname AND NOT b.attisdropped
+        )
+      """,
+      String.class,
+      archive,
+      table,
+      archive
+    );
+    missing.forEach(jdbcTemplate::execute);
+    if (!missing.isEmpty()) {
+      logger.info("Added {} new column(s) of {} to {}", missing.size(), table, archive);
+    }
+  }
+}
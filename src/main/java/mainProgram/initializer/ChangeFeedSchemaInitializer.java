@@ -0,0 +1,81 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets up the cursor of the incremental job change feed ({@code /api/jobs/changes}).
+ *
+ * <p>A timestamp cursor can skip changes: a transaction stamps its rows when it
+ * writes them, but they only become visible when it commits, possibly after a
+ * client has already been handed a later cursor. Instead, every write to
+ * {@code jobs} and {@code job_tombstones} records the ID of the writing transaction
+ * in {@code change_txid} (set by a trigger, so SQL updates, the stored-total
+ * triggers and the archiver are covered too). The cursor handed to a client is the
+ * oldest transaction still running when the feed was read ({@code xmin} of the
+ * snapshot): every transaction below it had finished, so no change can show up
+ * below the cursor later.</p>
+ *
+ * <p>{@code job_change_horizon} holds the newest transaction whose tombstones have
+ * been pruned (see {@link mainProgram.repository.JobChangeFeedRepository}). A client
+ * with an older cursor may have missed a delete, so it is told to reload.</p>
+ */
+@Component
+@DependsOn("entityManagerFactory") // The schema must exist first
+public class ChangeFeedSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChangeFeedSchemaInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ChangeFeedSchemaInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      // Rows written before the column existed are older than any cursor, so NULL never matches
+      jdbcTemplate.execute("ALTER TABLE jobs ADD COLUMN IF NOT EXISTS change_txid bigint");
+      jdbcTemplate.execute("ALTER TABLE job_tombstones ADD COLUMN IF NOT EXISTS change_txid bigint");
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_jobs_change_txid ON jobs (change_txid)");
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_job_tombstones_change_txid ON job_tombstones (change_txid)");
+      // The feed used to read updated_at; the archiver doesn't need an index on it
+      jdbcTemplate.execute("DROP INDEX IF EXISTS idx_jobs_updated_at");
+      jdbcTemplate.execute(
+        """
+        CREATE TABLE IF NOT EXISTS job_change_horizon (
+          id boolean PRIMARY KEY DEFAULT true CHECK (id),
+          pruned_txid bigint NOT NULL
+        )
+        """
+      );
+      jdbcTemplate.execute(
+        """
+        CREATE OR REPLACE FUNCTION stamp_change_txid() RETURNS trigger AS $$
+        BEGIN
+          NEW.change_txid := pg_current_xact_id()::text::bigint;
+          RETURN NEW;
+        END
+        $$ LANGUAGE plpgsql
+        """
+      );
+      jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_jobs_change_txid ON jobs");
+      jdbcTemplate.execute(
+        "CREATE TRIGGER trg_jobs_change_txid BEFORE INSERT OR UPDATE ON jobs " +
+        "FOR EACH ROW EXECUTE FUNCTION stamp_change_txid()"
+      );
+      jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_job_tombstones_change_txid ON job_tombstones");
+      jdbcTemplate.execute(
+        "CREATE TRIGGER trg_job_tombstones_change_txid BEFORE INSERT OR UPDATE ON job_tombstones " +
+        "FOR EACH ROW EXECUTE FUNCTION stamp_change_txid()"
+      );
+    } catch (Exception e) {
+      logger.error("Failed to set up the job change feed cursor", e);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import mainProgram.repository.JobSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets up the parts inventory: the stock of every product, in {@code product_stock}.
+ *
+ * <p>{@code product_stock} is not mapped by Hibernate, so stock changes never touch
+ * the cached {@code Product} rows. Per product it holds {@code on_hand}, the parts on
+ * the shelf (set by a stock count, raised by deliveries), and {@code reserved}, the
+ * parts on repairs that haven't been picked up yet. Reservations are counted in
+ * memory and written in batches by {@link mainProgram.services.InventoryService}; this
+ * component installs the rest, as triggers:</p>
+ * <ul>
+ *   <li>When a job is picked up its parts leave the shop: they are taken off
+ *   {@code on_hand} and {@code reserved} at once. Moving the job back to another
+ *   status puts them back.</li>
+ *   <li>Parts added to a job that is already picked up are used straight away, and
+ *   parts removed from one don't return to the shelf, so they are settled directly
+ *   instead of being (un)reserved.</li>
+ * </ul>
+ *
+ * <p>Both triggers only write stock for picked-up jobs, so adding parts to open repairs
+ * never waits for a lock on a stock row. Finally, {@code reserved} is recounted from the
+ * open repairs: at startup no reservations are waiting in memory, so this corrects
+ * any that were lost when the application last stopped.</p>
+ */
+@Component
+@DependsOn("entityManagerFactory") // The schema must exist first
+public class InventorySchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(InventorySchemaInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public InventorySchemaInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      createTable();
+      installTriggers();
+      reconcileReserved();
+    } catch (Exception e) {
+      logger.error("Failed to set up the parts inventory", e);
+    }
+  }
+
+  private void createTable() {
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS product_stock (
+        product_id integer PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+        on_hand integer NOT NULL DEFAULT 0,
+        reserved integer NOT NULL DEFAULT 0,
+        counted_at timestamp
+      )
+      """
+    );
+    // The low-stock list: counted products, by what's left once the reservations are taken out
+    jdbcTemplate.execute(
+      "CREATE INDEX IF NOT EXISTS idx_product_stock_available ON product_stock ((on_hand - reserved)) " +
+      "WHERE counted_at IS NOT NULL"
+    );
+  }
+
+  private void installTriggers() {
+    // Stock rows are written in product ID order, like the batched reservations, so the two never deadlock
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION stock_on_job_pickup() RETURNS trigger AS $$
+      DECLARE
+        used integer := CASE WHEN NEW.status_id = %1$d THEN 1 ELSE -1 END;
+      BEGIN
+        INSERT INTO product_stock AS s (product_id, on_hand, reserved)
+        SELECT product_id, -used * SUM(COALESCE(quantity, 0)), -used * SUM(COALESCE(quantity, 0))
+        FROM job_part_jointable
+        WHERE job_id = NEW.id
+        GROUP BY product_id
+        ORDER BY product_id
+        ON CONFLICT (product_id) DO UPDATE
+        SET on_hand = s.on_hand + EXCLUDED.on_hand, reserved = s.reserved + EXCLUDED.reserved;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """.formatted(JobSpecifications.PICKED_UP_STATUS_ID)
+    );
+    // The application (un)reserves every part change; for picked-up jobs this settles it instead
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION stock_on_closed_job_part_change() RETURNS trigger AS $$
+      DECLARE
+        old_closed boolean := false;
+        new_closed boolean := false;
+      BEGIN
+        IF current_setting('app.archiving', true) = 'on' THEN
+          RETURN NULL;
+        END IF;
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+          old_closed := EXISTS (SELECT 1 FROM jobs WHERE id = OLD.job_id AND status_id = %1$d);
+        END IF;
+        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+          new_closed := EXISTS (SELECT 1 FROM jobs WHERE id = NEW.job_id AND status_id = %1$d);
+        END IF;
+        IF TG_OP = 'UPDATE' AND old_closed AND new_closed
+          AND OLD.job_id = NEW.job_id AND OLD.product_id = NEW.product_id THEN
+          -- More (or fewer) of a part on a picked-up job: used (or returned) straight away
+          INSERT INTO product_stock AS s (product_id, on_hand, reserved)
+          VALUES (NEW.product_id,
+            COALESCE(OLD.quantity, 0) - COALESCE(NEW.quantity, 0),
+            COALESCE(OLD.quantity, 0) - COALESCE(NEW.quantity, 0))
+          ON CONFLICT (product_id) DO UPDATE
+          SET on_hand = s.on_hand + EXCLUDED.on_hand, reserved = s.reserved + EXCLUDED.reserved;
+          RETURN NULL;
+        END IF;
+        IF old_closed THEN
+          -- Removed from a picked-up job: the part left with the customer, so nothing is released
+          INSERT INTO product_stock AS s (product_id, reserved)
+          VALUES (OLD.product_id, COALESCE(OLD.quantity, 0))
+          ON CONFLICT (product_id) DO UPDATE SET reserved = s.reserved + EXCLUDED.reserved;
+        END IF;
+        IF new_closed THEN
+          -- Added to a picked-up job: used straight away instead of reserved
+          INSERT INTO product_stock AS s (product_id, on_hand, reserved)
+          VALUES (NEW.product_id, -COALESCE(NEW.quantity, 0), -COALESCE(NEW.quantity, 0))
+          ON CONFLICT (product_id) DO UPDATE
+          SET on_hand = s.on_hand + EXCLUDED.on_hand, reserved = s.reserved + EXCLUDED.reserved;
+        END IF;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """.formatted(JobSpecifications.PICKED_UP_STATUS_ID)
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_stock_job_pickup ON jobs");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_stock_job_pickup
+      AFTER UPDATE OF status_id ON jobs
+      FOR EACH ROW WHEN ((OLD.status_id = %1$d) IS DISTINCT FROM (NEW.status_id = %1$d))
+      EXECUTE FUNCTION stock_on_job_pickup()
+      """.formatted(JobSpecifications.PICKED_UP_STATUS_ID)
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_stock_closed_job_part ON job_part_jointable");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_stock_closed_job_part
+      AFTER INSERT OR DELETE OR UPDATE OF job_id, product_id, quantity ON job_part_jointable
+      FOR EACH ROW EXECUTE FUNCTION stock_on_closed_job_part_change()
+      """
+    );
+  }
+
+  private void reconcileReserved() {
+    Integer corrected = jdbcTemplate.queryForObject(
+      """
+      WITH expected AS (
+        SELECT jp.product_id, SUM(COALESCE(jp.quantity, 0)) AS reserved
+        FROM job_part_jointable jp
+        JOIN jobs j ON j.id = jp.job_id
+        WHERE j.status_id <> ?
+        GROUP BY jp.product_id
+      ), cleared AS (
+        UPDATE product_stock s SET reserved = 0
+        WHERE s.reserved <> 0 AND NOT EXISTS (SELECT 1 FROM expected e WHERE e.product_id = s.product_id)
+        RETURNING 1
+      ), counted AS (
+        INSERT INTO product_stock AS s (product_id, reserved)
+        SELECT product_id, reserved FROM expected
+        ON CONFLICT (product_id) DO UPDATE SET reserved = EXCLUDED.reserved
+        WHERE s.reserved <> EXCLUDED.reserved
+        RETURNING 1
+      )
+      SELECT (SELECT COUNT(*) FROM cleared) + (SELECT COUNT(*) FROM counted)
+      """,
+      Integer.class,
+      JobSpecifications.PICKED_UP_STATUS_ID
+    );
+    if (corrected != null && corrected > 0) {
+      logger.info("Corrected the reserved stock of {} products", corrected);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import mainProgram.table.JobPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings an existing job_part_jointable up to date with the {@link JobPart} mapping.
+ *
+ * <p>This component runs at startup, after Hibernate has updated the schema.
+ * It handles the changes that Hibernate's auto-DDL cannot apply to existing
+ * data on its own:</p>
+ * <ul>
+ *   <li>Job part IDs used to come from an identity column and now come from
+ *   {@code job_part_jointable_seq}, which Hibernate creates starting at 1. If
+ *   the sequence is behind the highest existing ID, it is moved to that ID, so
+ *   the next ID is just above it.</li>
+ *   <li>The sequence used to step by 50. Hibernate never changes the increment
+ *   of an existing sequence, so it is set to {@value JobPart#ID_ALLOCATION_SIZE}
+ *   here. The next ID is still above every ID handed out before.</li>
+ *   <li>Each product may appear only once per job ({@code uk_job_part_job_product}).
+ *   Hibernate skips the constraint if duplicate lines already exist. In that
+ *   case the duplicates are merged into one line with the summed quantity, and
+ *   the constraint is added.</li>
+ * </ul>
+ */
+@Component
+@DependsOn("entityManagerFactory") // The schema (and the sequence) must exist first
+public class JobPartSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobPartSchemaInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transaction;
+
+  public JobPartSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      alignIdSequence();
+    } catch (Exception e) {
+      logger.error("Failed to align job_part_jointable_seq with existing job parts", e);
+    }
+    try {
+      ensureUniqueLines();
+    } catch (Exception e) {
+      logger.error("Failed to add the unique (job_id, product_id) constraint to job_part_jointable", e);
+    }
+  }
+
+  private void alignIdSequence() {
+    Long increment = jdbcTemplate.queryForObject(
+      "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'job_part_jointable_seq'",
+      Long.class
+    );
+    if (increment != null && increment != JobPart.ID_ALLOCATION_SIZE) {
+      jdbcTemplate.execute("ALTER SEQUENCE job_part_jointable_seq INCREMENT BY " + JobPart.ID_ALLOCATION_SIZE);
+      logger.info("Changed the increment of job_part_jointable_seq from {} to {}", increment, JobPart.ID_ALLOCATION_SIZE);
+    }
+    Long moved = jdbcTemplate.query(
+      """
+      SELECT setval('job_part_jointable_seq', m.max_id)
+      FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM job_part_jointable) m
+      WHERE m.max_id > (SELECT last_value FROM job_part_jointable_seq)
+      """,
+      (rs) -> rs.next() ? rs.getLong(1) : null
+    );
+    if (moved != null) {
+      logger.info("Moved job_part_jointable_seq past existing job parts (highest ID {})", moved);
+    }
+  }
+
+  private void ensureUniqueLines() {
+    Integer present = jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM pg_constraint WHERE conname = 'uk_job_part_job_product'",
+      Integer.class
+    );
+    if (present != null && present > 0) return;
+
+    transaction.executeWithoutResult((status) -> {
+      // Keep the oldest line of each duplicate group with the group's total, delete the rest
+      int removed = jdbcTemplate.update(
+        """
+        WITH groups AS (
+          SELECT job_id, product_id, MIN(id) AS keep_id, SUM(COALESCE(quantity, 0)) AS total
+          FROM job_part_jointable
+          GROUP BY job_id, product_id
+          HAVING COUNT(*) > 1
+        ), merged AS (
+          UPDATE job_part_jointable jp SET quantity = g.total
+          FROM groups g WHERE jp.id = g.keep_id
+        )
+        DELETE FROM job_part_jointable jp
+        USING groups g
+        WHERE jp.job_id = g.job_id AND jp.product_id = g.product_id AND jp.id <> g.keep_id
+        """
+      );
+      jdbcTemplate.execute(
+        "ALTER TABLE job_part_jointable ADD CONSTRAINT uk_job_part_job_product UNIQUE (job_id, product_id)"
+      );
+      logger.info("Added unique (job_id, product_id) to job_part_jointable; merged {} duplicate lines", removed);
+    });
+  }
+}
@@ -1,12 +1,16 @@
 package mainProgram.initializer;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 import java.util.TreeMap;
-import mainProgram.repository.JobStatusRepository;
-import mainProgram.table.JobStatus;
+import mainProgram.services.JobStatusRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 /**
@@ -17,14 +21,18 @@ import org.springframework.stereotype.Component;
  * the expected default status records.</p>
  *
  * <p>If the table is empty or certain statuses are missing, they are
- * automatically created. Existing records are left unchanged.</p>
+ * automatically created, and renamed defaults get their expected name back. This
+ * is a single upsert statement. Afterwards the {@link JobStatusRegistry} is loaded,
+ * so no request has to query the table for a status.</p>
  */
 @Component
+@DependsOn("entityManagerFactory") // The table is created by Hibernate auto-DDL
 public class JobStatusInitializer {
 
   private static final Logger logger = LoggerFactory.getLogger(JobStatusInitializer.class);
 
-  private final JobStatusRepository repository;
+  private final JdbcTemplate jdbcTemplate;
+  private final JobStatusRegistry registry;
 
   // Define your default statuses here (ID → Name)
   private static final Map<Short, String> DEFAULT_STATUSES = new TreeMap<>(
@@ -44,8 +52,9 @@ public class JobStatusInitializer {
     )
   );
 
-  public JobStatusInitializer(JobStatusRepository repository) {
-    this.repository = repository;
+  public JobStatusInitializer(JdbcTemplate jdbcTemplate, JobStatusRegistry registry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.registry = registry;
   }
 
   @PostConstruct
@@ -53,30 +62,26 @@ public class JobStatusInitializer {
     try {
       logger.info("Checking JobStatus table...");
 
+      // All defaults in one statement: insert missing IDs, rename changed ones, leave the rest alone
+      StringJoiner values = new StringJoiner(", ");
+      List<Object> args = new ArrayList<>();
       DEFAULT_STATUSES.forEach((id, name) -> {
-        repository
-          .findById(id)
-          .ifPresentOrElse(
-            (existing) -> {
-              if (!existing.getName().equals(name)) {
-                existing.setName(name);
-                repository.save(existing);
-                logger.info("Updated JobStatus ID {} to name '{}'", id, name);
-              }
-            },
-            () -> {
-              JobStatus status = new JobStatus();
-              status.setId(id);
-              status.setName(name);
-              repository.save(status);
-              logger.info("Inserted JobStatus ID {} with name '{}'", id, name);
-            }
-          );
+        values.add("(?, ?)");
+        args.add(id);
+        args.add(name);
       });
-
-      logger.info("JobStatus initialization complete. Total records: {}", repository.count());
+      int changed = jdbcTemplate.update(
+        "INSERT INTO job_status (id, name) VALUES " +
+        values +
+        " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name WHERE job_status.name <> EXCLUDED.name",
+        args.toArray()
+      );
+      logger.info("Inserted or renamed {} JobStatus records", changed);
     } catch (Exception e) {
       logger.error("Failed to initialize JobStatus table", e);
     }
+    // Loaded here, before any request is served, even if the defaults could not be written
+    registry.refresh();
+    logger.info("JobStatus initialization complete. Total records: {}", registry.all().size());
   }
 }
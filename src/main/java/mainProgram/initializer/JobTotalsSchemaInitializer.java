@@ -0,0 +1,166 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import mainProgram.table.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets up the stored job totals: labour, parts and grand total on every job row.
+ *
+ * <p>This component runs at startup, after Hibernate has updated the schema
+ * (which adds {@code jobs.parts_total}). It installs the parts that Hibernate's
+ * auto-DDL cannot express:</p>
+ * <ul>
+ *   <li>{@code labour_total} and {@code grand_total} are generated columns:
+ *   the database computes them from {@code work_time_minutes},
+ *   {@code price_per_minute} and {@code parts_total} on every write, whichever
+ *   way the job is written.</li>
+ *   <li>{@code parts_total} is kept up to date by triggers. A change to a job
+ *   part adds the difference (quantity × product price) to its job; a product
+ *   price change adds quantity × price difference to every job using it (found
+ *   through an index on {@code job_part_jointable.product_id}). Both
+ *   are increments of the current value, so concurrent part adds to one job
+ *   never overwrite each other, and no write has to sum a job's parts again.
+ *   A part change reads its product's price with a share lock, so it waits for
+ *   a price change in progress and is counted at the new price.</li>
+ *   <li>Finally, {@code parts_total} is checked against the parts themselves,
+ *   and rows that are off are corrected: jobs from before the column existed,
+ *   and rounding drift.</li>
+ * </ul>
+ *
+ * <p>Jobs in the archive keep the totals they had when they were archived.</p>
+ *
+ * @see Job#getGrand_total()
+ */
+@Component
+@DependsOn("entityManagerFactory") // The schema must exist first
+public class JobTotalsSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobTotalsSchemaInitializer.class);
+
+  /// Same expression as Job.getLabour_total()
+  private static final String LABOUR = "COALESCE(work_time_minutes, 0) * COALESCE(price_per_minute, 0)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JobTotalsSchemaInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      addGeneratedColumns();
+      installTriggers();
+      reconcilePartsTotals();
+    } catch (Exception e) {
+      logger.error("Failed to set up the stored job totals", e);
+    }
+  }
+
+  private void addGeneratedColumns() {
+    jdbcTemplate.execute(
+      "ALTER TABLE jobs ADD COLUMN IF NOT EXISTS labour_total double precision " +
+      "GENERATED ALWAYS AS (" + LABOUR + ") STORED"
+    );
+    jdbcTemplate.execute(
+      "ALTER TABLE jobs ADD COLUMN IF NOT EXISTS grand_total double precision " +
+      "GENERATED ALWAYS AS (" + LABOUR + " + parts_total) STORED"
+    );
+  }
+
+  private void installTriggers() {
+    // Lets the price trigger (and the report's product type trigger) find a product's part lines without a full scan
+    jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_job_part_product ON job_part_jointable (product_id)");
+    // The part trigger share-locks the product. Part adds don't block each other, but wait for an uncommitted
+    // price change, whose trigger can't see their new lines; they then read the new price. A price change waits
+    // for uncommitted part adds in turn, and then sees their lines. Products are locked before jobs on both sides
+    // (see JobPartRepositoryImpl.addQuantities), and the price trigger locks jobs in ID order, like the batched
+    // part adds.
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION job_parts_total_on_part_change() RETURNS trigger AS $$
+      DECLARE
+        old_price double precision;
+        new_price double precision;
+      BEGIN
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+          SELECT COALESCE(price, 0) INTO old_price FROM products WHERE id = OLD.product_id FOR SHARE;
+          UPDATE jobs SET parts_total = parts_total - COALESCE(OLD.quantity, 0) * COALESCE(old_price, 0)
+          WHERE id = OLD.job_id;
+        END IF;
+        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+          SELECT COALESCE(price, 0) INTO new_price FROM products WHERE id = NEW.product_id FOR SHARE;
+          UPDATE jobs SET parts_total = parts_total + COALESCE(NEW.quantity, 0) * COALESCE(new_price, 0)
+          WHERE id = NEW.job_id;
+        END IF;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION job_parts_total_on_price_change() RETURNS trigger AS $$
+      BEGIN
+        PERFORM 1 FROM jobs
+        WHERE id IN (SELECT job_id FROM job_part_jointable WHERE product_id = NEW.id)
+        ORDER BY id
+        FOR NO KEY UPDATE;
+        UPDATE jobs j
+        SET parts_total = j.parts_total + used.quantity * (COALESCE(NEW.price, 0) - COALESCE(OLD.price, 0))
+        FROM (
+          SELECT job_id, SUM(COALESCE(quantity, 0)) AS quantity
+          FROM job_part_jointable
+          WHERE product_id = NEW.id
+          GROUP BY job_id
+        ) used
+        WHERE j.id = used.job_id;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_job_parts_total ON job_part_jointable");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_job_parts_total
+      AFTER INSERT OR DELETE OR UPDATE OF job_id, product_id, quantity ON job_part_jointable
+      FOR EACH ROW EXECUTE FUNCTION job_parts_total_on_part_change()
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_job_parts_total_price ON products");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_job_parts_total_price
+      AFTER UPDATE OF price ON products
+      FOR EACH ROW WHEN (OLD.price IS DISTINCT FROM NEW.price)
+      EXECUTE FUNCTION job_parts_total_on_price_change()
+      """
+    );
+  }
+
+  private void reconcilePartsTotals() {
+    // Below half an øre the difference is floating-point rounding, not a missing part
+    int corrected = jdbcTemplate.update(
+      """
+      UPDATE jobs j SET parts_total = s.total
+      FROM (
+        SELECT j2.id, COALESCE(SUM(COALESCE(jp.quantity, 0) * COALESCE(p.price, 0)), 0) AS total
+        FROM jobs j2
+        LEFT JOIN job_part_jointable jp ON jp.job_id = j2.id
+        LEFT JOIN products p ON p.id = jp.product_id
+        GROUP BY j2.id
+      ) s
+      WHERE j.id = s.id AND abs(j.parts_total - s.total) >= 0.005
+      """
+    );
+    if (corrected > 0) {
+      logger.info("Corrected the parts total of {} jobs", corrected);
+    }
+  }
+}
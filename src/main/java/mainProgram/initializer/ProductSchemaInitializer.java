@@ -0,0 +1,140 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import mainProgram.table.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes the codes of the products in use unique: {@code uk_products_ean} on
+ * {@code "EAN"} and {@code uk_products_product_number} on {@code "productNumber"}.
+ *
+ * <p>This component runs at startup, after Hibernate has updated the schema.
+ * Barcode lookups and the supplier price list import ({@code ON CONFLICT}) rely on
+ * both indexes, so they are created here rather than by Hibernate's auto-DDL, which
+ * skips an index (with only a log line) if the existing data violates it.</p>
+ *
+ * <p>Both indexes are partial ({@code WHERE archived_at IS NULL}): an archived product
+ * keeps its codes for the jobs that used it, but a new product may take them. An
+ * index from an older version that also covers archived products is replaced.
+ * Before an index is created:</p>
+ * <ul>
+ *   <li>Blank codes are set to {@code NULL}; the {@link Product} entity does the same
+ *   for new and edited products. Any number of products may have no code.</li>
+ *   <li>A code used by several products in use stays on the oldest one and is cleared
+ *   on the others. Every cleared code is logged with its product, so it can be put
+ *   right by hand.</li>
+ * </ul>
+ *
+ * <p>It also indexes the fields the product search and autocomplete match on
+ * ({@code LOWER(field) LIKE '%kw%'} and {@code 'kw%'}): one trigram index
+ * ({@code pg_trgm}) per field, which serves both prefix and substring patterns.</p>
+ */
+@Component
+@DependsOn("entityManagerFactory") // The schema must exist first
+public class ProductSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductSchemaInitializer.class);
+
+  /// Columns matched by the product search, and the name of each one's trigram index
+  private static final Map<String, String> SEARCHED_COLUMNS = Map.of(
+    "\"productNumber\"",
+    "idx_products_product_number_trgm",
+    "name",
+    "idx_products_name_trgm",
+    "\"EAN\"",
+    "idx_products_ean_trgm",
+    "category",
+    "idx_products_category_trgm"
+  );
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transaction;
+
+  public ProductSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      ensureUniqueCode("\"EAN\"", "uk_products_ean");
+    } catch (Exception e) {
+      logger.error("Failed to add the unique EAN index to products", e);
+    }
+    try {
+      ensureUniqueCode("\"productNumber\"", "uk_products_product_number");
+    } catch (Exception e) {
+      logger.error("Failed to add the unique product number index to products", e);
+    }
+    try {
+      createSearchIndexes();
+    } catch (Exception e) {
+      logger.error("Failed to add the product search indexes", e);
+    }
+  }
+
+  private void createSearchIndexes() {
+    jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+    SEARCHED_COLUMNS.forEach((column, index) ->
+      jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS %s ON products USING gin (lower(%s) gin_trgm_ops)".formatted(index, column))
+    );
+  }
+
+  private void ensureUniqueCode(String column, String indexName) {
+    int blanks = jdbcTemplate.update("UPDATE products SET %1$s = NULL WHERE btrim(%1$s) = ''".formatted(column));
+    if (blanks > 0) {
+      logger.info("Cleared {} blank {} values in products", blanks, column);
+    }
+    List<String> existing = jdbcTemplate.queryForList(
+      "SELECT indexdef FROM pg_indexes WHERE tablename = 'products' AND indexname = ?",
+      String.class,
+      indexName
+    );
+    if (!existing.isEmpty() && existing.get(0).contains(" WHERE ")) return;
+
+    transaction.executeWithoutResult((status) -> {
+      // No writer may add a duplicate between the clean-up and the index
+      jdbcTemplate.execute("LOCK TABLE products IN SHARE ROW EXCLUSIVE MODE");
+      if (!existing.isEmpty()) {
+        // Also covers archived products; created as a constraint by older versions
+        jdbcTemplate.execute("ALTER TABLE products DROP CONSTRAINT IF EXISTS " + indexName);
+        jdbcTemplate.execute("DROP INDEX IF EXISTS " + indexName);
+        logger.info("Replacing unique index {} with one on the products in use", indexName);
+      }
+      // Keep each code on the oldest product in use that has it
+      List<Map<String, Object>> cleared = jdbcTemplate.queryForList(
+        """
+        WITH duplicates AS (
+          SELECT id, %1$s AS code, MIN(id) OVER (PARTITION BY %1$s) AS keep_id
+          FROM products
+          WHERE %1$s IS NOT NULL AND archived_at IS NULL
+        )
+        UPDATE products p SET %1$s = NULL
+        FROM duplicates d
+        WHERE p.id = d.id AND d.id <> d.keep_id
+        RETURNING p.id, d.code, d.keep_id
+        """.formatted(column)
+      );
+      for (Map<String, Object> row : cleared) {
+        logger.warn(
+          "Cleared {} '{}' on product {}: already used by product {}",
+          column,
+          row.get("code"),
+          row.get("id"),
+          row.get("keep_id")
+        );
+      }
+      jdbcTemplate.execute("CREATE UNIQUE INDEX %s ON products (%s) WHERE archived_at IS NULL".formatted(indexName, column));
+      logger.info("Added unique index {} to products; cleared {} duplicate codes", indexName, cleared.size());
+    });
+  }
+}
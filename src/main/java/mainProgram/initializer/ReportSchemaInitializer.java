@@ -0,0 +1,276 @@
+package mainProgram.initializer;
+
+import jakarta.annotation.PostConstruct;
+import mainProgram.repository.ReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sets up the reporting rollups: pre-aggregated daily totals that the report
+ * endpoints read instead of the jobs and job parts themselves.
+ *
+ * <p>This component runs at startup, after the stored job totals and the archive
+ * tables exist. It creates:</p>
+ * <ul>
+ *   <li>{@code report_job_daily}: per job day and status, the number of jobs,
+ *   labour minutes, labour revenue and parts revenue.</li>
+ *   <li>{@code report_part_daily}: per job day and product type, the number of
+ *   parts used.</li>
+ *   <li>{@code report_status_daily}: per day and status, the number of times a job
+ *   was given that status (created with it or changed to it). Counted on the day
+ *   of the change, not the day the job is booked for.</li>
+ *   <li>{@code report_job_delta}, {@code report_part_delta} and
+ *   {@code report_status_delta}: journals of changes not yet added to the rollups.
+ *   Triggers on {@code jobs}, {@code job_part_jointable} and {@code products} append
+ *   one row per change (the old values subtracted, the new ones added; one row per
+ *   status transition). Appending never waits for another writer, so busy days
+ *   don't turn one rollup row into a lock every job write queues behind.
+ *   {@link ReportRepository#fold()} moves the journals into the rollups.</li>
+ * </ul>
+ *
+ * <p>Moving jobs to the archive doesn't change the reports: the archiver tells the
+ * triggers to skip its deletes, and a rebuild reads the archive tables too. The
+ * rollups are built from scratch when they are first created, and can be rebuilt
+ * at any time with {@link ReportRepository#rebuild()}. Status transitions are
+ * history that the jobs don't keep: they are counted from when the table was
+ * created, and a rebuild leaves them as they are.</p>
+ */
+@Component
+// The stored job totals and the archive tables must exist first
+@DependsOn({ "entityManagerFactory", "jobTotalsSchemaInitializer", "archiveSchemaInitializer" })
+public class ReportSchemaInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReportSchemaInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ReportRepository reportRepository;
+  private final TransactionTemplate transaction;
+
+  public ReportSchemaInitializer(
+    JdbcTemplate jdbcTemplate,
+    ReportRepository reportRepository,
+    PlatformTransactionManager transactionManager
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.reportRepository = reportRepository;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void initialize() {
+    try {
+      boolean created = createTables();
+      installTriggers();
+      if (created) {
+        int rows = transaction.execute((status) -> reportRepository.rebuild());
+        logger.info("Built the report rollups from existing jobs ({} rows)", rows);
+      }
+    } catch (Exception e) {
+      logger.error("Failed to set up the report rollups", e);
+    }
+  }
+
+  /// Returns true if the rollups did not exist yet
+  private boolean createTables() {
+    Boolean missing = jdbcTemplate.queryForObject(
+      "SELECT to_regclass('report_job_daily') IS NULL",
+      Boolean.class
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_job_daily (
+        day date NOT NULL,
+        status_id smallint NOT NULL,
+        jobs bigint NOT NULL,
+        labour_minutes bigint NOT NULL,
+        labour_revenue double precision NOT NULL,
+        parts_revenue double precision NOT NULL,
+        PRIMARY KEY (day, status_id)
+      )
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_part_daily (
+        day date NOT NULL,
+        product_type text NOT NULL,
+        quantity bigint NOT NULL,
+        PRIMARY KEY (day, product_type)
+      )
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_status_daily (
+        day date NOT NULL,
+        status_id smallint NOT NULL,
+        transitions bigint NOT NULL,
+        PRIMARY KEY (day, status_id)
+      )
+      """
+    );
+    // The journals have no keys or indexes: they are only appended to, and emptied as a whole
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_job_delta (
+        day date,
+        status_id smallint,
+        jobs bigint NOT NULL,
+        labour_minutes bigint NOT NULL,
+        labour_revenue double precision NOT NULL,
+        parts_revenue double precision NOT NULL
+      )
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_part_delta (
+        day date,
+        product_type text NOT NULL,
+        quantity bigint NOT NULL
+      )
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE TABLE IF NOT EXISTS report_status_delta (
+        day date NOT NULL,
+        status_id smallint NOT NULL,
+        transitions bigint NOT NULL
+      )
+      """
+    );
+    return Boolean.TRUE.equals(missing);
+  }
+
+  private void installTriggers() {
+    // Job rows: subtract the old row, add the new one. A changed day also moves the job's parts.
+    // A new job, or a changed status, is also a status transition, counted today.
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION report_on_job_change() RETURNS trigger AS $$
+      BEGIN
+        IF current_setting('app.archiving', true) = 'on' THEN
+          RETURN NULL;
+        END IF;
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+          INSERT INTO report_job_delta VALUES (
+            OLD.date::date, OLD.status_id, -1, -COALESCE(OLD.work_time_minutes, 0),
+            -COALESCE(OLD.labour_total, 0), -COALESCE(OLD.parts_total, 0)
+          );
+        END IF;
+        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+          INSERT INTO report_job_delta VALUES (
+            NEW.date::date, NEW.status_id, 1, COALESCE(NEW.work_time_minutes, 0),
+            COALESCE(NEW.labour_total, 0), COALESCE(NEW.parts_total, 0)
+          );
+          IF TG_OP = 'INSERT' OR OLD.status_id IS DISTINCT FROM NEW.status_id THEN
+            INSERT INTO report_status_delta SELECT CURRENT_DATE, NEW.status_id, 1 WHERE NEW.status_id IS NOT NULL;
+          END IF;
+        END IF;
+        IF TG_OP = 'UPDATE' AND OLD.date::date IS DISTINCT FROM NEW.date::date THEN
+          INSERT INTO report_part_delta
+          SELECT d.day, COALESCE(p.category, ''), d.sign * SUM(COALESCE(jp.quantity, 0))
+          FROM job_part_jointable jp
+          JOIN products p ON p.id = jp.product_id
+          CROSS JOIN (VALUES (OLD.date::date, -1), (NEW.date::date, 1)) d (day, sign)
+          WHERE jp.job_id = NEW.id
+          GROUP BY d.day, d.sign, p.category;
+        END IF;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION report_on_part_change() RETURNS trigger AS $$
+      BEGIN
+        IF current_setting('app.archiving', true) = 'on' THEN
+          RETURN NULL;
+        END IF;
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+          INSERT INTO report_part_delta
+          SELECT j.date::date, COALESCE(p.category, ''), -COALESCE(OLD.quantity, 0)
+          FROM jobs j, products p
+          WHERE j.id = OLD.job_id AND p.id = OLD.product_id;
+        END IF;
+        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+          INSERT INTO report_part_delta
+          SELECT j.date::date, COALESCE(p.category, ''), COALESCE(NEW.quantity, 0)
+          FROM jobs j, products p
+          WHERE j.id = NEW.job_id AND p.id = NEW.product_id;
+        END IF;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    // A product moved to another type takes its past use along, archived jobs included
+    jdbcTemplate.execute(
+      """
+      CREATE OR REPLACE FUNCTION report_on_product_type_change() RETURNS trigger AS $$
+      BEGIN
+        INSERT INTO report_part_delta
+        SELECT used.day, t.type, t.sign * SUM(used.quantity)
+        FROM (
+          SELECT j.date::date AS day, COALESCE(jp.quantity, 0) AS quantity
+          FROM job_part_jointable jp JOIN jobs j ON j.id = jp.job_id
+          WHERE jp.product_id = NEW.id
+          UNION ALL
+          SELECT j.date::date, COALESCE(jp.quantity, 0)
+          FROM job_part_archive jp JOIN jobs_archive j ON j.id = jp.job_id
+          WHERE jp.product_id = NEW.id
+        ) used
+        CROSS JOIN (VALUES (COALESCE(OLD.category, ''), -1), (COALESCE(NEW.category, ''), 1)) t (type, sign)
+        GROUP BY used.day, t.type, t.sign;
+        RETURN NULL;
+      END
+      $$ LANGUAGE plpgsql
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_report_job_change ON jobs");
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_report_job_update ON jobs");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_report_job_change
+      AFTER INSERT OR DELETE ON jobs
+      FOR EACH ROW EXECUTE FUNCTION report_on_job_change()
+      """
+    );
+    // Edits that don't touch a reported value (title, customer, ...) leave the journal alone
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_report_job_update
+      AFTER UPDATE ON jobs
+      FOR EACH ROW WHEN (
+        (OLD.date::date, OLD.status_id, OLD.work_time_minutes, OLD.labour_total, OLD.parts_total)
+        IS DISTINCT FROM (NEW.date::date, NEW.status_id, NEW.work_time_minutes, NEW.labour_total, NEW.parts_total)
+      )
+      EXECUTE FUNCTION report_on_job_change()
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_report_part_change ON job_part_jointable");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_report_part_change
+      AFTER INSERT OR DELETE OR UPDATE OF job_id, product_id, quantity ON job_part_jointable
+      FOR EACH ROW EXECUTE FUNCTION report_on_part_change()
+      """
+    );
+    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_report_product_type ON products");
+    jdbcTemplate.execute(
+      """
+      CREATE TRIGGER trg_report_product_type
+      AFTER UPDATE OF category ON products
+      FOR EACH ROW WHEN (OLD.category IS DISTINCT FROM NEW.category)
+      EXECUTE FUNCTION report_on_product_type_change()
+      """
+    );
+  }
+}
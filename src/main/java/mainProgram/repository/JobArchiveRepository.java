@@ -0,0 +1,121 @@
+package mainProgram.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import mainProgram.table.Job;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/// The cold side of the jobs table: jobs_archive and job_part_archive (created by ArchiveSchemaInitializer).
+/// Rows are moved with plain SQL, column by column, so Hibernate never loads the jobs it archives.
+@Repository
+public class JobArchiveRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /// Column lists of the live tables, read once; the schema only changes at startup
+  private volatile String jobColumns;
+  private volatile String partColumns;
+
+  public JobArchiveRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /// Moves up to `limit` jobs with the given status, last changed before `cutoff`, to the archive
+  /// together with their parts, and leaves a tombstone for the change feed. One statement; run it in
+  /// a transaction per chunk. Rows locked by a running request are skipped and picked up next time.
+  /// `jobIds` limits it to those jobs, or is null for any job. Returns the IDs of the archived jobs.
+  public List<Integer> moveToArchive(short statusId, LocalDateTime cutoff, Integer[] jobIds, int limit, LocalDateTime now) {
+    String jobs = jobColumns();
+    String parts = partColumns();
+    // Archived jobs still count in the reports and the stock, so those triggers skip these deletes (until the transaction ends)
+    jdbcTemplate.queryForObject("SELECT set_config('app.archiving', 'on', true)", String.class);
+    return jdbcTemplate.queryForList(
+      """
+      WITH batch AS (
+        SELECT id FROM jobs
+        WHERE status_id = ? AND COALESCE(updated_at, date) < ? AND (?::int[] IS NULL OR id = ANY(?::int[]))
+        ORDER BY id
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+      ), parts AS (
+        DELETE FROM job_part_jointable p USING batch b WHERE p.job_id = b.id RETURNING p.*
+      ), archived_parts AS (
+        INSERT INTO job_part_archive (%2$s, archived_at) SELECT %2$s, ? FROM parts
+      ), moved AS (
+        DELETE FROM jobs j USING batch b WHERE j.id = b.id RETURNING j.*
+      ), tombstones AS (
+        INSERT INTO job_tombstones (job_id, deleted_at) SELECT id, ? FROM moved
+        ON CONFLICT (job_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at
+      )
+      INSERT INTO jobs_archive (%1$s, archived_at) SELECT %1$s, ? FROM moved
+      RETURNING id
+      """.formatted(jobs, parts),
+      Integer.class,
+      statusId,
+      cutoff,
+      jobIds,
+      jobIds,
+      limit,
+      now,
+      now,
+      now
+    );
+  }
+
+  /// Searches archived jobs on the same fields as the live job search, newest first.
+  /// The rows are read as Job entities, so they serialize like live jobs; they are never written back.
+  public List<Job> search(String keyword, int limit) {
+    @SuppressWarnings("unchecked")
+    List<Job> found = entityManager
+      .createNativeQuery(
+        """
+        SELECT %s FROM jobs_archive
+        WHERE title ILIKE :pattern ESCAPE '\\'
+           OR job_description ILIKE :pattern ESCAPE '\\'
+           OR customer_name ILIKE :pattern ESCAPE '\\'
+           OR customer_phone ILIKE :pattern ESCAPE '\\'
+        ORDER BY date DESC NULLS LAST
+        LIMIT :limit
+        """.formatted(jobColumns()),
+        Job.class
+      )
+      .setParameter("pattern", containsPattern(keyword))
+      .setParameter("limit", limit)
+      .getResultList();
+    return found;
+  }
+
+  /// A LIKE pattern matching the keyword anywhere, with `%`, `_` and `\` in it matched literally
+  private static String containsPattern(String keyword) {
+    return '%' + keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + '%';
+  }
+
+  private String jobColumns() {
+    if (jobColumns == null) jobColumns = columnsOf("jobs");
+    return jobColumns;
+  }
+
+  private String partColumns() {
+    if (partColumns == null) partColumns = columnsOf("job_part_jointable");
+    return partColumns;
+  }
+
+  private String columnsOf(String table) {
+    return jdbcTemplate
+      .queryForList(
+        "SELECT column_name FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = ? ORDER BY ordinal_position",
+        String.class,
+        table
+      )
+      .stream()
+      .map((column) -> '"' + column + '"')
+      .collect(Collectors.joining(", "));
+  }
+}
@@ -0,0 +1,50 @@
+package mainProgram.repository;
+
+import java.time.LocalDateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/// Cursors and tombstone pruning of the job change feed, on the change_txid columns and the
+/// job_change_horizon table created by ChangeFeedSchemaInitializer
+@Repository
+public class JobChangeFeedRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JobChangeFeedRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /// The oldest transaction still running. Every change by an older transaction is already visible,
+  /// so reading changes at or above this value later never misses one.
+  public long currentCursor() {
+    return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+  }
+
+  /// The newest transaction whose tombstones were pruned (0 if none were). Deletes at or below it may be gone.
+  public long prunedThrough() {
+    return jdbcTemplate.queryForObject(
+      "SELECT COALESCE((SELECT pruned_txid FROM job_change_horizon), 0)",
+      Long.class
+    );
+  }
+
+  /// Deletes the tombstones of jobs deleted before `before`, and moves the horizon up to the newest of them.
+  /// Returns the number of tombstones deleted.
+  public int pruneTombstones(LocalDateTime before) {
+    return jdbcTemplate.queryForObject(
+      """
+      WITH pruned AS (
+        DELETE FROM job_tombstones WHERE deleted_at < ? RETURNING change_txid
+      ), horizon AS (
+        INSERT INTO job_change_horizon AS h (pruned_txid)
+        SELECT MAX(change_txid) FROM pruned HAVING MAX(change_txid) IS NOT NULL
+        ON CONFLICT (id) DO UPDATE SET pruned_txid = GREATEST(h.pruned_txid, EXCLUDED.pruned_txid)
+      )
+      SELECT COUNT(*) FROM pruned
+      """,
+      Integer.class,
+      before
+    );
+  }
+}
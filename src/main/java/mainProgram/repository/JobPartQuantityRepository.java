@@ -0,0 +1,17 @@
+package mainProgram.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import mainProgram.dto.RepairPartRequest;
+
+/// Atomic quantity updates for job part lines (implemented in JobPartRepositoryImpl)
+public interface JobPartQuantityRepository {
+  /// Adds each line's quantity to its (job, product) line, creating the line if it doesn't exist.
+  /// Every line is one INSERT ... ON CONFLICT DO UPDATE, and all of them are sent as a single JDBC batch.
+  /// Throws DataIntegrityViolationException if a job or product does not exist, or a product is archived.
+  void addQuantities(Collection<RepairPartRequest> lines);
+
+  /// Removes the job's line for the product, or every line of the job if productId is null, in one DELETE.
+  /// Returns the removed quantity per product ID (empty if there was nothing to remove).
+  Map<Integer, Integer> removeLines(int jobId, Integer productId);
+}
@@ -1,10 +1,30 @@
 package mainProgram.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 import mainProgram.table.JobPart;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface JobPartRepository extends JpaRepository<JobPart, Long> {
+public interface JobPartRepository extends JpaRepository<JobPart, Long>, JobPartQuantityRepository {
+  /// The parts of one job, with their product and job fetched in the same select
+  @EntityGraph(attributePaths = { "job", "product" })
   List<JobPart> findByJobId(int jobId);
+
+  /// Keyset page: the next job parts after the given ID, in ID order (job and product fetched in the same select)
+  @EntityGraph(attributePaths = { "job", "product" })
+  List<JobPart> findByIdGreaterThanOrderByIdAsc(int after, Limit limit);
+
+  /// Stream every job part with its job and product, in ID order, for exports.
+  /// Read through a cursor in batches of 500; consume inside a transaction and close the stream.
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT jp FROM JobPart jp JOIN FETCH jp.job JOIN FETCH jp.product ORDER BY jp.id")
+  Stream<JobPart> streamAllForExport();
+
   // Spring Data auto-provides findAll(), findById(), save(), delete(), etc.
 }
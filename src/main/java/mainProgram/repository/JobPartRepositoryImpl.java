@@ -0,0 +1,75 @@
+package mainProgram.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import mainProgram.dto.RepairPartRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class JobPartRepositoryImpl implements JobPartQuantityRepository {
+
+  /// Insert the line, or add to its quantity if the (job_id, product_id) line already exists.
+  /// The increment happens inside the statement, so concurrent adds can't lose an update,
+  /// and the row lock is only held while the statement runs. nextval() shares the sequence with
+  /// Hibernate, so the IDs never collide. It costs one ID per line sent, also when the line
+  /// already exists and nothing is inserted; the sequence's increment is 1 for that reason.
+  private static final String UPSERT_SQL = """
+        INSERT INTO job_part_jointable (id, job_id, product_id, quantity)
+        VALUES (nextval('job_part_jointable_seq'), ?, ?, ?)
+        ON CONFLICT (job_id, product_id)
+        DO UPDATE SET quantity = COALESCE(job_part_jointable.quantity, 0) + EXCLUDED.quantity
+    """;
+
+  /// Share-locks products in ID order, as the part trigger would one line at a time
+  private static final String LOCK_PRODUCTS_SQL = "SELECT id FROM products WHERE id = ANY(?) ORDER BY id FOR SHARE";
+
+  private static final String REMOVE_SQL = """
+        DELETE FROM job_part_jointable
+        WHERE job_id = ? AND (CAST(? AS integer) IS NULL OR product_id = ?)
+        RETURNING product_id, COALESCE(quantity, 0) AS quantity
+    """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JobPartRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void addQuantities(Collection<RepairPartRequest> lines) {
+    if (lines.isEmpty()) return;
+    List<Object[]> rows = new ArrayList<>(lines.size());
+    Set<Integer> productIds = new TreeSet<>();
+    for (RepairPartRequest line : lines) {
+      rows.add(new Object[] { line.repairId(), line.productId(), line.quantityOrDefault() });
+      productIds.add(line.productId());
+    }
+    // With several products, lock them all before the first line locks its job. Otherwise a price change
+    // holding a later product could wait for that job while this batch waits for the product.
+    if (productIds.size() > 1) {
+      jdbcTemplate.query(LOCK_PRODUCTS_SQL, (rs) -> {}, (Object) productIds.toArray(Integer[]::new));
+    }
+    jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+  }
+
+  @Override
+  public Map<Integer, Integer> removeLines(int jobId, Integer productId) {
+    Map<Integer, Integer> removed = new HashMap<>();
+    jdbcTemplate.query(
+      REMOVE_SQL,
+      (rs) -> {
+        removed.merge(rs.getInt("product_id"), rs.getInt("quantity"), Integer::sum);
+      },
+      jobId,
+      productId,
+      productId
+    );
+    return removed;
+  }
+}
@@ -0,0 +1,29 @@
+package mainProgram.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import mainProgram.table.Job;
+
+/// Single-statement partial updates of one job, guarded by its version, and of many jobs at once
+/// (implemented in JobRepositoryImpl)
+public interface JobPatchRepository {
+  /// Sets the date and/or the duration (null leaves a field unchanged) if the job is still at
+  /// the given version. One UPDATE ... RETURNING: the changed job comes back in the same round trip,
+  /// with its version incremented. Empty if the job does not exist or its version has moved on.
+  /// Entity listeners don't see this write; the caller must publish the change.
+  Optional<Job> reschedule(int id, long version, LocalDateTime date, Integer workTimeMinutes);
+
+  /// Sets the status if the job is still at the given version, like {@link #reschedule}
+  Optional<Job> changeStatus(int id, long version, short statusId);
+
+  /// Moves every job dated in [from, to) by offsetMinutes, optionally only those with the given status.
+  /// One set-based UPDATE ... RETURNING, no version check: each moved job's version is incremented,
+  /// so a client still holding the old version gets a conflict. Returns the moved jobs.
+  List<Job> shiftDates(LocalDateTime from, LocalDateTime to, Short statusId, int offsetMinutes);
+
+  /// Sets the status of the given jobs in one UPDATE ... RETURNING, like {@link #shiftDates}.
+  /// Jobs that already have the status are left alone. Returns the changed jobs.
+  List<Job> changeStatuses(Collection<Integer> ids, short statusId);
+}
@@ -1,8 +1,18 @@
 package mainProgram.repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import mainProgram.dto.CalendarJob;
 import mainProgram.table.Job;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -23,11 +33,19 @@ import org.springframework.stereotype.Repository;
  *   <li>existsById(Integer id) - Check if a job exists</li>
  * </ul>
  *
+ * <p>It also extends JpaSpecificationExecutor, so pages of jobs can be filtered with
+ * the predicates in {@link JobSpecifications}.</p>
+ *
+ * <p>{@link Job#getStatus()} is lazy and no query here joins job_status: status
+ * names are read from the in-memory {@link mainProgram.services.JobStatusRegistry},
+ * so a list of jobs never costs an extra select for its statuses.</p>
+ *
  * @see Job
  * @see JpaRepository
  */
 @Repository
-public interface JobRepository extends JpaRepository<Job, Integer>, SearchableRepository<Job> {
+public interface JobRepository
+  extends JpaRepository<Job, Integer>, JpaSpecificationExecutor<Job>, SearchableRepository<Job>, JobPatchRepository {
   /**
    * Retrieves all jobs ordered by date in ascending order (earliest first).
    *
@@ -49,4 +67,81 @@ public interface JobRepository extends JpaRepository<Job, Integer>, SearchableRe
    * @return a list of all jobs sorted by date from newest to oldest
    */
   List<Job> findAllByOrderByDateDesc();
+
+  /**
+   * Retrieves the jobs scheduled inside a date window, ordered by date.
+   *
+   * <p>The window is half-open: {@code from} is inclusive and {@code to} is exclusive,
+   * matching the start/end range FullCalendar reports for its visible view. The query
+   * is served by the composite {@code (date, status_id)} index on the jobs table, so the
+   * cost depends on the size of the window rather than on the size of the table.</p>
+   *
+   * @param from start of the window (inclusive)
+   * @param to   end of the window (exclusive)
+   * @return the jobs whose date falls inside the window, earliest first
+   */
+  @Query("SELECT j FROM Job j WHERE j.date >= :from AND j.date < :to ORDER BY j.date ASC")
+  List<Job> findByDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * Retrieves the jobs created or updated by transactions at or after the given cursor.
+   *
+   * <p>Backed by the index on {@code change_txid} (see
+   * {@link mainProgram.initializer.ChangeFeedSchemaInitializer}); used by the
+   * incremental change feed.</p>
+   *
+   * @param since the client's sync cursor
+   * @return the jobs changed since the cursor
+   */
+  @Query(value = "SELECT * FROM jobs WHERE change_txid >= :since", nativeQuery = true)
+  List<Job> findChangedSince(@Param("since") long since);
+
+  /**
+   * Retrieves the next jobs after the given ID, in ID order (keyset pagination).
+   *
+   * <p>The seek predicate uses the primary key index, so every page costs the same
+   * regardless of how far into the table it starts.</p>
+   *
+   * @param after the last ID of the previous page (0 for the first page)
+   * @param limit the maximum number of jobs to return
+   * @return the jobs following {@code after}
+   */
+  List<Job> findByIdGreaterThanOrderByIdAsc(int after, Limit limit);
+
+  /**
+   * Retrieves the calendar view of the jobs inside a date window, ordered by date.
+   *
+   * <p>Same window semantics as {@link #findByDateRange}, but selects only the columns
+   * the calendar needs into {@link CalendarJob} records. No entities are hydrated or
+   * tracked, and the description is cut to a preview of
+   * {@link CalendarJob#DESCRIPTION_PREVIEW_LENGTH} characters in the database.</p>
+   *
+   * @param from start of the window (inclusive)
+   * @param to   end of the window (exclusive)
+   * @return the calendar rows in the window, earliest first
+   */
+  @Query(
+    "SELECT new mainProgram.dto.CalendarJob(" +
+    " j.id, j.title, j.customer_name, SUBSTRING(j.job_description, 1, " +
+    CalendarJob.DESCRIPTION_PREVIEW_LENGTH +
+    "), j.date, j.work_time_minutes, s.id, s.name, j.version)" +
+    " FROM Job j JOIN j.status s" +
+    " WHERE j.date >= :from AND j.date < :to" +
+    " ORDER BY j.date ASC"
+  )
+  List<CalendarJob> findCalendarJobs(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * Streams every job, in ID order, for exports.
+   *
+   * <p>Rows are read through a database cursor in batches of 500 instead of being
+   * loaded into one list. The caller must consume the stream inside a transaction
+   * and close it, and should clear the persistence context periodically so that
+   * memory stays flat.</p>
+   *
+   * @return a stream of all jobs
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT j FROM Job j ORDER BY j.id")
+  Stream<Job> streamAllForExport();
 }
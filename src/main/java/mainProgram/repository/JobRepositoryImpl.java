@@ -2,13 +2,21 @@ package mainProgram.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import mainProgram.table.Job;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public class JobRepositoryImpl implements SearchableRepository<Job> {
+public class JobRepositoryImpl implements SearchableRepository<Job>, JobPatchRepository {
 
   @PersistenceContext
   private EntityManager entityManager;
@@ -21,7 +29,6 @@ public class JobRepositoryImpl implements SearchableRepository<Job> {
 
     String jpql = """
           SELECT j FROM Job j
-          LEFT JOIN j.status s
           WHERE LOWER(j.title) LIKE LOWER(CONCAT('%', :kw, '%'))
              OR LOWER(j.job_description) LIKE LOWER(CONCAT('%', :kw, '%'))
              OR LOWER(j.customer_name) LIKE LOWER(CONCAT('%', :kw, '%'))
@@ -33,4 +40,116 @@ public class JobRepositoryImpl implements SearchableRepository<Job> {
     query.setParameter("kw", keyword);
     return query.getResultList();
   }
+
+  @Override
+  public List<Job> autocomplete(String prefix, int limit, BooleanSupplier superseded) {
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+
+    // First pass: jobs where a field starts with the prefix
+    String prefixJpql = """
+          SELECT j FROM Job j
+          WHERE LOWER(j.title) LIKE LOWER(CONCAT(:kw, '%'))
+             OR LOWER(j.job_description) LIKE LOWER(CONCAT(:kw, '%'))
+             OR LOWER(j.customer_name) LIKE LOWER(CONCAT(:kw, '%'))
+             OR LOWER(j.customer_phone) LIKE LOWER(CONCAT(:kw, '%'))
+          ORDER BY j.date DESC
+      """;
+    List<Job> results = new ArrayList<>(
+      entityManager.createQuery(prefixJpql, Job.class).setParameter("kw", prefix).setMaxResults(limit).getResultList()
+    );
+    if (results.size() >= limit || superseded.getAsBoolean()) {
+      return results;
+    }
+
+    // Second pass: fill up with substring matches not already found
+    String containsJpql = """
+          SELECT j FROM Job j
+          WHERE (LOWER(j.title) LIKE LOWER(CONCAT('%', :kw, '%'))
+             OR LOWER(j.job_description) LIKE LOWER(CONCAT('%', :kw, '%'))
+             OR LOWER(j.customer_name) LIKE LOWER(CONCAT('%', :kw, '%'))
+             OR LOWER(j.customer_phone) LIKE LOWER(CONCAT('%', :kw, '%')))
+            AND j.id NOT IN :exclude
+          ORDER BY j.date DESC
+      """;
+    // IDs start at 1, so 0 stands in for "nothing to exclude" (an empty NOT IN list is not valid SQL)
+    List<Integer> found = results.stream().map(Job::getId).toList();
+    results.addAll(
+      entityManager
+        .createQuery(containsJpql, Job.class)
+        .setParameter("kw", prefix)
+        .setParameter("exclude", found.isEmpty() ? List.of(0) : found)
+        .setMaxResults(limit - results.size())
+        .getResultList()
+    );
+    return results;
+  }
+
+  @Override
+  public Optional<Job> reschedule(int id, long version, LocalDateTime date, Integer workTimeMinutes) {
+    Map<String, Object> columns = new LinkedHashMap<>();
+    if (date != null) columns.put("date", date);
+    if (workTimeMinutes != null) columns.put("work_time_minutes", workTimeMinutes);
+    return patch(id, version, columns);
+  }
+
+  @Override
+  public Optional<Job> changeStatus(int id, long version, short statusId) {
+    return patch(id, version, Map.of("status_id", statusId));
+  }
+
+  /// UPDATE jobs SET <columns>, version = version + 1, updated_at = now WHERE id = ? AND version = ? RETURNING *
+  /// Column names come from the callers above, never from the request.
+  private Optional<Job> patch(int id, long version, Map<String, Object> columns) {
+    StringBuilder sql = new StringBuilder("UPDATE jobs SET ");
+    columns.keySet().forEach((column) -> sql.append(column).append(" = :").append(column).append(", "));
+    // updated_at is taken from the JVM clock, like @UpdateTimestamp, so all writers stamp it the same way
+    sql.append("version = version + 1, updated_at = :now WHERE id = :id AND version = :version RETURNING *");
+
+    Query query = entityManager.createNativeQuery(sql.toString(), Job.class);
+    columns.forEach(query::setParameter);
+    query.setParameter("now", LocalDateTime.now());
+    query.setParameter("id", id);
+    query.setParameter("version", version);
+    @SuppressWarnings("unchecked")
+    List<Job> updated = query.getResultList();
+    return updated.stream().findFirst();
+  }
+
+  @Override
+  public List<Job> shiftDates(LocalDateTime from, LocalDateTime to, Short statusId, int offsetMinutes) {
+    String sql =
+      "UPDATE jobs SET date = date + make_interval(mins => :offset), version = version + 1, updated_at = :now " +
+      "WHERE date >= :from AND date < :to" +
+      (statusId != null ? " AND status_id = :status" : "") +
+      " RETURNING *";
+    Query query = entityManager
+      .createNativeQuery(sql, Job.class)
+      .setParameter("offset", offsetMinutes)
+      .setParameter("now", LocalDateTime.now())
+      .setParameter("from", from)
+      .setParameter("to", to);
+    if (statusId != null) query.setParameter("status", statusId);
+    @SuppressWarnings("unchecked")
+    List<Job> updated = query.getResultList();
+    return updated;
+  }
+
+  @Override
+  public List<Job> changeStatuses(Collection<Integer> ids, short statusId) {
+    // One array parameter instead of an IN list, so the statement is the same for any number of ids
+    Query query = entityManager
+      .createNativeQuery(
+        "UPDATE jobs SET status_id = :status, version = version + 1, updated_at = :now " +
+        "WHERE id = ANY(:ids) AND status_id IS DISTINCT FROM :status RETURNING *",
+        Job.class
+      )
+      .setParameter("status", statusId)
+      .setParameter("now", LocalDateTime.now())
+      .setParameter("ids", ids.toArray(Integer[]::new));
+    @SuppressWarnings("unchecked")
+    List<Job> updated = query.getResultList();
+    return updated;
+  }
 }
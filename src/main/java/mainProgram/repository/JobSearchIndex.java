@@ -0,0 +1,225 @@
+package mainProgram.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import mainProgram.table.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory inverted index over the searchable job fields, as an alternative to
+ * the {@code LIKE '%kw%'} scan in {@link JobRepositoryImpl}.
+ *
+ * <p>Every title, description, customer name and phone number is split into
+ * lowercase trigrams, and each trigram maps to the IDs of the jobs containing it.
+ * A query intersects the posting sets of its own trigrams, then checks the few
+ * remaining candidates against the stored text. The matches are the same as the
+ * database search (case-insensitive substring on any field), but ranked by
+ * relevance: which field matched, and whether it matched at the start.</p>
+ *
+ * <p>The index is built at startup and kept current by {@link JobSearchIndexListener},
+ * which forwards committed inserts, updates and deletes. Enabled with
+ * {@code app.search.jobs.engine=index}.</p>
+ */
+@Repository
+@ConditionalOnProperty(name = "app.search.jobs.engine", havingValue = "index")
+public class JobSearchIndex implements SearchableRepository<Job> {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobSearchIndex.class);
+
+  private static final int GRAM = 3;
+
+  /// Searchable fields and their ranking weight (a title hit outranks a description hit)
+  private static final Map<String, Integer> FIELD_WEIGHTS = Map.of(
+    "title",
+    8,
+    "customer_name",
+    6,
+    "customer_phone",
+    6,
+    "job_description",
+    2
+  );
+
+  /// Lowercased text of one job's searchable fields
+  private record Document(Map<String, String> fields) {
+    Set<String> grams() {
+      Set<String> grams = new HashSet<>();
+      fields.values().forEach((text) -> addGrams(text, grams));
+      return grams;
+    }
+  }
+
+  private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+  private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+
+  private final JobRepository jobRepository;
+  private final TransactionTemplate readOnlyTransaction;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public JobSearchIndex(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
+    this.jobRepository = jobRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /// Build the index from the jobs table once the application has started
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    readOnlyTransaction.executeWithoutResult((status) -> {
+      try (Stream<Job> jobs = jobRepository.streamAllForExport()) {
+        int count = 0;
+        for (Job job : (Iterable<Job>) jobs::iterator) {
+          index(job);
+          // Keep the persistence context small while walking the whole table
+          if (++count % 500 == 0) entityManager.clear();
+        }
+      }
+    });
+    logger.info(
+      "Job search index built: {} jobs, {} trigrams in {} ms",
+      documents.size(),
+      postings.size(),
+      (System.nanoTime() - start) / 1_000_000
+    );
+  }
+
+  /// Add or replace a job in the index
+  public synchronized void index(Job job) {
+    remove(job.getId());
+    Map<String, String> fields = new HashMap<>();
+    putField(fields, "title", job.getTitle());
+    putField(fields, "customer_name", job.getCustomer_name());
+    putField(fields, "customer_phone", job.getCustomer_phone());
+    putField(fields, "job_description", job.getJob_description());
+    Document document = new Document(Map.copyOf(fields));
+    documents.put(job.getId(), document);
+    document.grams().forEach((gram) -> postings.computeIfAbsent(gram, (g) -> ConcurrentHashMap.newKeySet()).add(job.getId()));
+  }
+
+  /// Remove a job from the index
+  public synchronized void remove(Integer jobId) {
+    Document old = documents.remove(jobId);
+    if (old == null) return;
+    for (String gram : old.grams()) {
+      Set<Integer> ids = postings.get(gram);
+      if (ids != null) {
+        ids.remove(jobId);
+        if (ids.isEmpty()) postings.remove(gram);
+      }
+    }
+  }
+
+  /// Jobs whose title, description, customer name or phone contains the keyword, best match first
+  @Override
+  public List<Job> search(String keyword) {
+    if (keyword == null || keyword.isBlank()) {
+      return List.of();
+    }
+    return load(rank(keyword.toLowerCase(Locale.ROOT)));
+  }
+
+  /// Top matches only; ranking already puts fields starting with the prefix first,
+  /// and only the returned jobs are loaded from the database
+  @Override
+  public List<Job> autocomplete(String prefix, int limit, BooleanSupplier superseded) {
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    List<Integer> ranked = rank(prefix.toLowerCase(Locale.ROOT));
+    return load(ranked.subList(0, Math.min(limit, ranked.size())));
+  }
+
+  /// Load the given jobs in one query and return them in the given order
+  private List<Job> load(List<Integer> ranked) {
+    if (ranked.isEmpty()) return List.of();
+    Map<Integer, Job> byId = jobRepository
+      .findAllById(ranked)
+      .stream()
+      .collect(Collectors.toMap(Job::getId, Function.identity()));
+    return ranked.stream().map(byId::get).filter((job) -> job != null).toList();
+  }
+
+  /// Matching job IDs ordered by descending score, then newest ID first
+  List<Integer> rank(String keyword) {
+    Set<Integer> candidates = candidates(keyword);
+    Map<Integer, Integer> scores = new HashMap<>();
+    for (Integer id : candidates) {
+      Document document = documents.get(id);
+      if (document == null) continue;
+      int score = score(document, keyword);
+      if (score > 0) scores.put(id, score);
+    }
+    List<Integer> ranked = new ArrayList<>(scores.keySet());
+    ranked.sort(
+      Comparator.comparing((Integer id) -> scores.get(id)).reversed().thenComparing(Comparator.reverseOrder())
+    );
+    return ranked;
+  }
+
+  /// Jobs that may contain the keyword: the intersection of its trigram postings
+  private Set<Integer> candidates(String keyword) {
+    // Too short for a trigram; check every document (still in memory)
+    if (keyword.length() < GRAM) return documents.keySet();
+
+    Set<String> grams = new HashSet<>();
+    addGrams(keyword, grams);
+    // Intersect starting with the rarest trigram to keep the working set small
+    List<Set<Integer>> lists = new ArrayList<>();
+    for (String gram : grams) {
+      Set<Integer> ids = postings.get(gram);
+      if (ids == null) return Set.of();
+      lists.add(ids);
+    }
+    lists.sort(Comparator.comparingInt(Set::size));
+    Set<Integer> result = new HashSet<>(lists.get(0));
+    for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+      result.retainAll(lists.get(i));
+    }
+    return result;
+  }
+
+  /// Relevance: field weight per matching field, doubled when the field starts with the keyword
+  private static int score(Document document, String keyword) {
+    int score = 0;
+    for (Map.Entry<String, String> field : document.fields().entrySet()) {
+      int at = field.getValue().indexOf(keyword);
+      if (at < 0) continue;
+      int weight = FIELD_WEIGHTS.get(field.getKey());
+      score += at == 0 ? weight * 2 : weight;
+    }
+    return score;
+  }
+
+  private static void putField(Map<String, String> fields, String name, String value) {
+    if (value != null && !value.isEmpty()) fields.put(name, value.toLowerCase(Locale.ROOT));
+  }
+
+  private static void addGrams(String text, Set<String> grams) {
+    for (int i = 0; i + GRAM <= text.length(); i++) {
+      grams.add(text.substring(i, i + GRAM));
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package mainProgram.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import mainProgram.table.Job;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link JobSearchIndex} in sync with the jobs table.
+ *
+ * <p>Registered on {@link Job} with {@code @EntityListeners}; Hibernate obtains it
+ * from Spring, so it can reach the index. Changes are applied after the surrounding
+ * transaction commits, so rolled-back writes never reach the index. When the index
+ * is disabled this listener does nothing.</p>
+ */
+@Component
+public class JobSearchIndexListener {
+
+  private final ObjectProvider<JobSearchIndex> index;
+
+  public JobSearchIndexListener(ObjectProvider<JobSearchIndex> index) {
+    this.index = index;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void onSave(Job job) {
+    index.ifAvailable((idx) -> afterCommit(() -> idx.index(job)));
+  }
+
+  @PostRemove
+  public void onRemove(Job job) {
+    Integer id = job.getId();
+    index.ifAvailable((idx) -> afterCommit(() -> idx.remove(id)));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        }
+      );
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package mainProgram.repository;
+
+import java.time.LocalDateTime;
+import mainProgram.table.Job;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reusable query filters for {@link Job}, combined by the job list page.
+ *
+ * <p>Each method returns {@code null} when its filter is not set; Spring Data
+ * ignores {@code null} specifications when they are combined, so callers can
+ * chain every filter without checking which ones are in use. The date and status
+ * filters match the composite {@code (date, status_id)} index on the jobs table.</p>
+ *
+ * @see JobRepository
+ */
+public final class JobSpecifications {
+
+  /** ID of the "pickedUp" status, the only status that closes a job. */
+  public static final short PICKED_UP_STATUS_ID = 6;
+
+  private JobSpecifications() {}
+
+  /**
+   * Jobs with the given status.
+   *
+   * @param statusId the status ID, or {@code null} for any status
+   * @return the filter, or {@code null} if not set
+   */
+  public static Specification<Job> hasStatus(Short statusId) {
+    if (statusId == null) return null;
+    return (root, query, cb) -> cb.equal(root.get("status").get("id"), statusId);
+  }
+
+  /**
+   * Jobs that are still open (not yet picked up by the customer).
+   *
+   * @return the filter
+   */
+  public static Specification<Job> isOpen() {
+    return (root, query, cb) -> cb.notEqual(root.get("status").get("id"), PICKED_UP_STATUS_ID);
+  }
+
+  /**
+   * Jobs that are closed (picked up by the customer).
+   *
+   * @return the filter
+   */
+  public static Specification<Job> isClosed() {
+    return hasStatus(PICKED_UP_STATUS_ID);
+  }
+
+  /**
+   * Jobs scheduled at or after the given time.
+   *
+   * @param from start of the window (inclusive), or {@code null} for no lower bound
+   * @return the filter, or {@code null} if not set
+   */
+  public static Specification<Job> dateFrom(LocalDateTime from) {
+    if (from == null) return null;
+    return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from);
+  }
+
+  /**
+   * Jobs scheduled before the given time.
+   *
+   * @param to end of the window (exclusive), or {@code null} for no upper bound
+   * @return the filter, or {@code null} if not set
+   */
+  public static Specification<Job> dateBefore(LocalDateTime to) {
+    if (to == null) return null;
+    return (root, query, cb) -> cb.lessThan(root.get("date"), to);
+  }
+}
@@ -0,0 +1,66 @@
+package mainProgram.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import mainProgram.services.JobStatusRegistry;
+import mainProgram.table.JobStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener keeping the {@link JobStatusRegistry} in line with {@link JobStatus}:
+ * when a status is inserted, renamed or deleted, the registry is updated once the
+ * transaction commits.
+ */
+@Component
+public class JobStatusRegistryListener {
+
+  private final ObjectProvider<JobStatusRegistry> registry;
+
+  public JobStatusRegistryListener(ObjectProvider<JobStatusRegistry> registry) {
+    this.registry = registry;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void onSave(Object entity) {
+    if (entity instanceof JobStatus status) {
+      String name = status.getName();
+      Short id = status.getId();
+      registry.ifAvailable((r) ->
+        afterCommit(() -> {
+          JobStatus copy = new JobStatus();
+          copy.setId(id);
+          copy.setName(name);
+          r.put(copy);
+        })
+      );
+    }
+  }
+
+  @PostRemove
+  public void onRemove(Object entity) {
+    if (entity instanceof JobStatus status) {
+      Short id = status.getId();
+      registry.ifAvailable((r) -> afterCommit(() -> r.remove(id)));
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        }
+      );
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package mainProgram.repository;
+
+import java.util.List;
+import mainProgram.table.JobTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for JobTombstone entity database operations.
+ *
+ * @see JobTombstone
+ */
+@Repository
+public interface JobTombstoneRepository extends JpaRepository<JobTombstone, Integer> {
+  /**
+   * Retrieves the IDs of all jobs deleted by transactions at or after the given cursor.
+   *
+   * @param since the client's sync cursor
+   * @return the IDs of the jobs deleted since the cursor
+   */
+  @Query(value = "SELECT job_id FROM job_tombstones WHERE change_txid >= :since", nativeQuery = true)
+  List<Integer> findDeletedIdsSince(@Param("since") long since);
+}
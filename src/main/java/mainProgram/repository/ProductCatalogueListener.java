@@ -0,0 +1,56 @@
+package mainProgram.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import mainProgram.services.ProductCatalogue;
+import mainProgram.table.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link ProductCatalogue} in sync with the products table.
+ *
+ * <p>Registered on {@link Product} with {@code @EntityListeners}. Like
+ * {@link JobSearchIndexListener}, changes are applied after the surrounding
+ * transaction commits, so a rolled-back write (e.g. a duplicate EAN) never
+ * reaches the catalogue.</p>
+ */
+@Component
+public class ProductCatalogueListener {
+
+  private final ObjectProvider<ProductCatalogue> catalogue;
+
+  public ProductCatalogueListener(ObjectProvider<ProductCatalogue> catalogue) {
+    this.catalogue = catalogue;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void onSave(Product product) {
+    catalogue.ifAvailable((c) -> afterCommit(() -> c.put(product)));
+  }
+
+  @PostRemove
+  public void onRemove(Product product) {
+    int id = product.getId();
+    catalogue.ifAvailable((c) -> afterCommit(() -> c.remove(id)));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        }
+      );
+    } else {
+      action.run();
+    }
+  }
+}
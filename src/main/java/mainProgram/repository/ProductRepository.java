@@ -1,14 +1,37 @@
 package mainProgram.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import mainProgram.table.Product;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+/// The product list queries are marked cacheable: their results (product IDs) go to the
+/// Hibernate query cache, and the products themselves to the second-level cache.
+/// Any product change made through Hibernate makes the cached results stale.
+/// Archived products (deleted by the user, see Product.archivedAt) are left out of every list and search;
+/// findById still finds them, for the jobs that used them.
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductUpsertRepository {
   List<Product> findByNameContainingIgnoreCase(String keyword);
 
+  /// Keyset page: the next products after the given ID, in ID order
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<Product> findByArchivedAtIsNullAndIdGreaterThanOrderByIdAsc(int after, Limit limit);
+
+  /// One page of the product list, without a search term
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  Page<Product> findByArchivedAtIsNull(Pageable pageable);
+
+  /// Every product in use (the barcode catalogue)
+  List<Product> findByArchivedAtIsNull();
+
   /**
    * Searches across multiple fields: productNumber (Varenr), name (Navn), EAN, and type.
    * Case-insensitive partial matches.
@@ -16,13 +39,79 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
   @Query(
     """
     SELECT p FROM Product p
-    WHERE LOWER(p.productNumber) LIKE LOWER(CONCAT('%', :kw, '%'))
-       OR LOWER(p.name) LIKE LOWER(CONCAT('%', :kw, '%'))
-       OR LOWER(p.EAN) LIKE LOWER(CONCAT('%', :kw, '%'))
-       OR LOWER(p.type) LIKE LOWER(CONCAT('%', :kw, '%'))
+    WHERE p.archivedAt IS NULL
+      AND (LOWER(p.productNumber) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.name) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.EAN) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.type) LIKE LOWER(CONCAT('%', :kw, '%')))
     ORDER BY p.name ASC
     """
   )
   List<Product> search(@Param("kw") String keyword);
+
+  /**
+   * Same multi-field search as {@link #search(String)}, but one page at a time.
+   * Sorting comes from the {@link Pageable}, so the product list can sort on any column.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+    value = """
+    SELECT p FROM Product p
+    WHERE p.archivedAt IS NULL
+      AND (LOWER(p.productNumber) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.name) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.EAN) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.type) LIKE LOWER(CONCAT('%', :kw, '%')))
+    """,
+    countQuery = """
+    SELECT COUNT(p) FROM Product p
+    WHERE p.archivedAt IS NULL
+      AND (LOWER(p.productNumber) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.name) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.EAN) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.type) LIKE LOWER(CONCAT('%', :kw, '%')))
+    """
+  )
+  Page<Product> search(@Param("kw") String keyword, Pageable pageable);
+
+  /**
+   * Autocomplete, first pass: products where any searched field starts with the prefix.
+   * The {@link Limit} stops the scan once enough rows are found.
+   */
+  @Query(
+    """
+    SELECT p FROM Product p
+    WHERE p.archivedAt IS NULL
+      AND (LOWER(p.productNumber) LIKE LOWER(CONCAT(:kw, '%'))
+        OR LOWER(p.name) LIKE LOWER(CONCAT(:kw, '%'))
+        OR LOWER(p.EAN) LIKE LOWER(CONCAT(:kw, '%'))
+        OR LOWER(p.type) LIKE LOWER(CONCAT(:kw, '%')))
+    ORDER BY p.name ASC
+    """
+  )
+  List<Product> autocompletePrefix(@Param("kw") String prefix, Limit limit);
+
+  /**
+   * Autocomplete, second pass: the remaining substring matches, skipping the
+   * products already returned by {@link #autocompletePrefix(String, Limit)}.
+   * Unordered, so the {@link Limit} stops the scan at the first matches even for
+   * keywords too short for the trigram indexes (see ProductSchemaInitializer).
+   */
+  @Query(
+    """
+    SELECT p FROM Product p
+    WHERE p.archivedAt IS NULL
+      AND (LOWER(p.productNumber) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.name) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.EAN) LIKE LOWER(CONCAT('%', :kw, '%'))
+        OR LOWER(p.type) LIKE LOWER(CONCAT('%', :kw, '%')))
+      AND p.id NOT IN :exclude
+    """
+  )
+  List<Product> autocompleteContains(
+    @Param("kw") String keyword,
+    @Param("exclude") Collection<Integer> exclude,
+    Limit limit
+  );
   // Spring Data auto-provides findAll(), findById(), save(), delete(), etc.
 }
@@ -0,0 +1,78 @@
+package mainProgram.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import mainProgram.table.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class ProductRepositoryImpl implements ProductUpsertRepository {
+
+  /// Codes missing from the import keep their stored value. The WHERE clause skips rows that
+  /// would not change, so refreshing a mostly unchanged price list writes (and locks) little.
+  private static final String UPDATE_SET = """
+        SET "productNumber" = COALESCE(EXCLUDED."productNumber", products."productNumber"),
+            "EAN" = COALESCE(EXCLUDED."EAN", products."EAN"),
+            name = EXCLUDED.name,
+            category = COALESCE(EXCLUDED.category, products.category),
+            price = EXCLUDED.price
+        WHERE (products."productNumber", products."EAN", products.name, products.category, products.price)
+          IS DISTINCT FROM (COALESCE(EXCLUDED."productNumber", products."productNumber"),
+                            COALESCE(EXCLUDED."EAN", products."EAN"),
+                            EXCLUDED.name,
+                            COALESCE(EXCLUDED.category, products.category),
+                            EXCLUDED.price)
+    """;
+
+  private static final String INSERT = """
+        INSERT INTO products ("productNumber", name, "EAN", category, price)
+        VALUES (?, ?, ?, ?, ?)
+    """;
+
+  /// The unique code indexes only cover products in use (see ProductSchemaInitializer), so an
+  /// archived product is never matched: importing its code adds a new product.
+  private static final String UPSERT_BY_EAN =
+    INSERT + "ON CONFLICT (\"EAN\") WHERE archived_at IS NULL DO UPDATE " + UPDATE_SET;
+  private static final String UPSERT_BY_PRODUCT_NUMBER =
+    INSERT + "ON CONFLICT (\"productNumber\") WHERE archived_at IS NULL DO UPDATE " + UPDATE_SET;
+
+  /// A product in use without an EAN gets the row's EAN, if its product number matches and no other
+  /// product in use has that EAN yet. The EAN upsert then finds it, instead of adding a second product
+  /// with the same product number.
+  private static final String CLAIM_EAN = """
+        UPDATE products SET "EAN" = ?
+        WHERE "productNumber" = ? AND "EAN" IS NULL AND archived_at IS NULL
+          AND NOT EXISTS (SELECT 1 FROM products p WHERE p."EAN" = ? AND p.archived_at IS NULL)
+    """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void upsertByCode(Collection<Product> products) {
+    List<Object[]> byEan = new ArrayList<>();
+    List<Object[]> byProductNumber = new ArrayList<>();
+    List<Object[]> eanClaims = new ArrayList<>();
+    for (Product product : products) {
+      Object[] row = {
+        product.getProductNumber(),
+        product.getName(),
+        product.getEAN(),
+        product.getType(),
+        product.getPrice(),
+      };
+      (product.getEAN() != null ? byEan : byProductNumber).add(row);
+      if (product.getEAN() != null && product.getProductNumber() != null) {
+        eanClaims.add(new Object[] { product.getEAN(), product.getProductNumber(), product.getEAN() });
+      }
+    }
+    if (!eanClaims.isEmpty()) jdbcTemplate.batchUpdate(CLAIM_EAN, eanClaims);
+    if (!byEan.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_BY_EAN, byEan);
+    if (!byProductNumber.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_BY_PRODUCT_NUMBER, byProductNumber);
+  }
+}
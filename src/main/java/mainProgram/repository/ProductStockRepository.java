@@ -0,0 +1,119 @@
+package mainProgram.repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import mainProgram.dto.ProductStock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/// The parts inventory in product_stock (created by InventorySchemaInitializer), read and written with plain SQL.
+/// Products without a stock row have no parts on the shelf and none reserved.
+@Repository
+public class ProductStockRepository {
+
+  private static final String SELECT_STOCK = """
+      SELECT p.id, p."productNumber", p.name, COALESCE(s.on_hand, 0) AS on_hand, COALESCE(s.reserved, 0) AS reserved
+      FROM products p
+      LEFT JOIN product_stock s ON s.product_id = p.id
+    """;
+
+  private static final RowMapper<ProductStock> STOCK_MAPPER = (rs, i) ->
+    new ProductStock(
+      rs.getInt("id"),
+      rs.getString("productNumber"),
+      rs.getString("name"),
+      rs.getInt("on_hand"),
+      rs.getInt("reserved"),
+      rs.getInt("on_hand") - rs.getInt("reserved")
+    );
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /// Adds the reserved quantity of many products in one statement, locking their stock rows in product ID order.
+  /// Products that no longer exist are skipped. Returns the number of stock rows written.
+  public int addReservations(SortedMap<Integer, Integer> quantities) {
+    if (quantities.isEmpty()) return 0;
+    Integer[] productIds = quantities.keySet().toArray(Integer[]::new);
+    Integer[] deltas = quantities.values().toArray(Integer[]::new);
+    return jdbcTemplate.update((connection) -> {
+      PreparedStatement statement = connection.prepareStatement(
+        """
+        INSERT INTO product_stock AS s (product_id, reserved)
+        SELECT r.product_id, r.delta
+        FROM unnest(?, ?) AS r (product_id, delta)
+        WHERE EXISTS (SELECT 1 FROM products p WHERE p.id = r.product_id)
+        ORDER BY r.product_id
+        ON CONFLICT (product_id) DO UPDATE SET reserved = s.reserved + EXCLUDED.reserved
+        """
+      );
+      statement.setArray(1, connection.createArrayOf("integer", productIds));
+      statement.setArray(2, connection.createArrayOf("integer", deltas));
+      return statement;
+    });
+  }
+
+  /// The stock of one product, or empty if the product doesn't exist
+  public Optional<ProductStock> find(int productId) {
+    return jdbcTemplate.query(SELECT_STOCK + " WHERE p.id = ?", STOCK_MAPPER, productId).stream().findFirst();
+  }
+
+  /// Sets the parts on the shelf after a stock count. Returns false if the product doesn't exist.
+  public boolean setOnHand(int productId, int onHand, LocalDateTime countedAt) {
+    return (
+      jdbcTemplate.update(
+        """
+        INSERT INTO product_stock AS s (product_id, on_hand, counted_at)
+        SELECT id, ?, ? FROM products WHERE id = ?
+        ON CONFLICT (product_id) DO UPDATE SET on_hand = EXCLUDED.on_hand, counted_at = EXCLUDED.counted_at
+        """,
+        onHand,
+        countedAt,
+        productId
+      ) > 0
+    );
+  }
+
+  /// Adds received parts to the shelf. A product that was never counted starts counting from here.
+  /// Returns false if the product doesn't exist.
+  public boolean addOnHand(int productId, int quantity, LocalDateTime receivedAt) {
+    return (
+      jdbcTemplate.update(
+        """
+        INSERT INTO product_stock AS s (product_id, on_hand, counted_at)
+        SELECT id, ?, ? FROM products WHERE id = ?
+        ON CONFLICT (product_id) DO UPDATE
+        SET on_hand = s.on_hand + EXCLUDED.on_hand, counted_at = COALESCE(s.counted_at, EXCLUDED.counted_at)
+        """,
+        quantity,
+        receivedAt,
+        productId
+      ) > 0
+    );
+  }
+
+  /// Counted products in use with fewer than `below` parts available, fewest first.
+  /// Products that were never counted or received are left out: their stock isn't known.
+  public List<ProductStock> findLowStock(int below, int limit) {
+    return jdbcTemplate.query(
+      """
+      SELECT p.id, p."productNumber", p.name, s.on_hand, s.reserved
+      FROM product_stock s
+      JOIN products p ON p.id = s.product_id
+      WHERE s.counted_at IS NOT NULL AND s.on_hand - s.reserved < ? AND p.archived_at IS NULL
+      ORDER BY s.on_hand - s.reserved, p.id
+      LIMIT ?
+      """,
+      STOCK_MAPPER,
+      below,
+      limit
+    );
+  }
+}
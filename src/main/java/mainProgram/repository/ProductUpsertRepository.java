@@ -0,0 +1,15 @@
+package mainProgram.repository;
+
+import java.util.Collection;
+import mainProgram.table.Product;
+
+/// Bulk insert-or-update of products by their codes (implemented in ProductRepositoryImpl)
+public interface ProductUpsertRepository {
+  /// Inserts each product, or updates the product in use with the same EAN (or, for products
+  /// without an EAN, the same product number). A product in use that has no EAN yet is matched on its
+  /// product number, and gets the EAN. Archived products are never updated. Rows whose values are unchanged are not rewritten.
+  /// All products are sent as JDBC batches, several statements in all, so call it in a transaction. Entity listeners and Hibernate caches are bypassed,
+  /// so the caller must refresh them. Throws DataIntegrityViolationException if a product number
+  /// already belongs to a product with another EAN.
+  void upsertByCode(Collection<Product> products);
+}
@@ -0,0 +1,233 @@
+package mainProgram.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import mainProgram.dto.PartsUsageReportRow;
+import mainProgram.dto.RevenueReportRow;
+import mainProgram.dto.StatusReportRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/// The reporting rollups (created by ReportSchemaInitializer): report_job_daily, report_part_daily and
+/// report_status_daily, fed by the report_job_delta, report_part_delta and report_status_delta journals
+/// that the triggers append to. Reports group the daily rows into the requested period with date_trunc,
+/// so a year is a few hundred rows. They add the journal rows not yet folded, so they include the latest
+/// changes without writing anything.
+@Repository
+public class ReportRepository {
+
+  /// A day column between two date parameters, either of which may be null for an open bound
+  private static final String IN_RANGE = "%s BETWEEN COALESCE(?::date, '-infinity') AND COALESCE(?::date, 'infinity')";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ReportRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /// Adds the journalled changes to the rollups and empties the journals. Each journal is moved with one
+  /// statement, so concurrent folds take disjoint rows and add them in any order.
+  /// Rollup rows left with nothing in them are removed. Returns the number of journal rows folded.
+  public int fold() {
+    Integer jobs = jdbcTemplate.queryForObject(
+      """
+      WITH d AS (
+        DELETE FROM report_job_delta RETURNING *
+      ), folded AS (
+        INSERT INTO report_job_daily AS r (day, status_id, jobs, labour_minutes, labour_revenue, parts_revenue)
+        SELECT day, status_id, SUM(jobs), SUM(labour_minutes), SUM(labour_revenue), SUM(parts_revenue)
+        FROM d
+        WHERE day IS NOT NULL
+        GROUP BY day, status_id
+        ON CONFLICT (day, status_id) DO UPDATE SET
+          jobs = r.jobs + EXCLUDED.jobs,
+          labour_minutes = r.labour_minutes + EXCLUDED.labour_minutes,
+          labour_revenue = r.labour_revenue + EXCLUDED.labour_revenue,
+          parts_revenue = r.parts_revenue + EXCLUDED.parts_revenue
+      )
+      SELECT COUNT(*) FROM d
+      """,
+      Integer.class
+    );
+    Integer parts = jdbcTemplate.queryForObject(
+      """
+      WITH d AS (
+        DELETE FROM report_part_delta RETURNING *
+      ), folded AS (
+        INSERT INTO report_part_daily AS r (day, product_type, quantity)
+        SELECT day, product_type, SUM(quantity)
+        FROM d
+        WHERE day IS NOT NULL
+        GROUP BY day, product_type
+        ON CONFLICT (day, product_type) DO UPDATE SET quantity = r.quantity + EXCLUDED.quantity
+      )
+      SELECT COUNT(*) FROM d
+      """,
+      Integer.class
+    );
+    Integer transitions = jdbcTemplate.queryForObject(
+      """
+      WITH d AS (
+        DELETE FROM report_status_delta RETURNING *
+      ), folded AS (
+        INSERT INTO report_status_daily AS r (day, status_id, transitions)
+        SELECT day, status_id, SUM(transitions)
+        FROM d
+        GROUP BY day, status_id
+        ON CONFLICT (day, status_id) DO UPDATE SET transitions = r.transitions + EXCLUDED.transitions
+      )
+      SELECT COUNT(*) FROM d
+      """,
+      Integer.class
+    );
+    jdbcTemplate.update("DELETE FROM report_job_daily WHERE jobs = 0");
+    jdbcTemplate.update("DELETE FROM report_part_daily WHERE quantity = 0");
+    return jobs + parts + transitions;
+  }
+
+  /// Recomputes the rollups from the live and archived jobs and parts, and empties their journals.
+  /// Status transitions can't be recomputed from the jobs, so they are left as they are.
+  /// Run it in a transaction: job and part writes wait at the journal until it commits, so every
+  /// change is either in the recomputed rollups or journalled after them, never both.
+  /// Returns the number of rollup rows written.
+  public int rebuild() {
+    return rebuild(null, null);
+  }
+
+  /// Like rebuild(), but only for the days from `from` to `to` (inclusive); a null bound is open.
+  /// The rollups and journal rows of other days are left as they are.
+  public int rebuild(LocalDate from, LocalDate to) {
+    jdbcTemplate.execute("LOCK TABLE report_job_delta, report_part_delta IN EXCLUSIVE MODE");
+    jdbcTemplate.update("DELETE FROM report_job_delta WHERE " + IN_RANGE.formatted("day"), from, to);
+    jdbcTemplate.update("DELETE FROM report_part_delta WHERE " + IN_RANGE.formatted("day"), from, to);
+    jdbcTemplate.update("DELETE FROM report_job_daily WHERE " + IN_RANGE.formatted("day"), from, to);
+    jdbcTemplate.update("DELETE FROM report_part_daily WHERE " + IN_RANGE.formatted("day"), from, to);
+    // Archived jobs from before the stored totals existed have no totals; their labour is recomputed
+    int jobs = jdbcTemplate.update(
+      """
+      INSERT INTO report_job_daily (day, status_id, jobs, labour_minutes, labour_revenue, parts_revenue)
+      SELECT date::date, status_id, COUNT(*), SUM(COALESCE(work_time_minutes, 0)),
+        SUM(COALESCE(labour_total, COALESCE(work_time_minutes, 0) * COALESCE(price_per_minute, 0))),
+        SUM(COALESCE(parts_total, 0))
+      FROM (
+        SELECT date, status_id, work_time_minutes, price_per_minute, labour_total, parts_total FROM jobs
+        UNION ALL
+        SELECT date, status_id, work_time_minutes, price_per_minute, labour_total, parts_total FROM jobs_archive
+      ) j
+      WHERE date IS NOT NULL AND %s
+      GROUP BY date::date, status_id
+      """.formatted(IN_RANGE.formatted("date::date")),
+      from,
+      to
+    );
+    int parts = jdbcTemplate.update(
+      """
+      INSERT INTO report_part_daily (day, product_type, quantity)
+      SELECT j.date::date, COALESCE(p.category, ''), SUM(COALESCE(jp.quantity, 0))
+      FROM (
+        SELECT job_id, product_id, quantity FROM job_part_jointable
+        UNION ALL
+        SELECT job_id, product_id, quantity FROM job_part_archive
+      ) jp
+      JOIN (SELECT id, date FROM jobs UNION ALL SELECT id, date FROM jobs_archive) j ON j.id = jp.job_id
+      JOIN products p ON p.id = jp.product_id
+      WHERE j.date IS NOT NULL AND %s
+      GROUP BY j.date::date, p.category
+      HAVING SUM(COALESCE(jp.quantity, 0)) <> 0
+      """.formatted(IN_RANGE.formatted("j.date::date")),
+      from,
+      to
+    );
+    return jobs + parts;
+  }
+
+  /// Jobs, labour and revenue per period, for jobs dated from `from` to `to` (inclusive).
+  /// `period` is a date_trunc unit (day, week or month); `statusId` limits the report to one status, or null for all.
+  public List<RevenueReportRow> revenue(String period, LocalDate from, LocalDate to, Short statusId) {
+    return jdbcTemplate.query(
+      """
+      SELECT date_trunc(CAST(? AS text), day::timestamp)::date AS period,
+        SUM(jobs) AS jobs, SUM(labour_minutes) AS labour_minutes, SUM(labour_revenue) AS labour_revenue, SUM(parts_revenue) AS parts_revenue
+      FROM (
+        SELECT day, status_id, jobs, labour_minutes, labour_revenue, parts_revenue FROM report_job_daily
+        UNION ALL
+        SELECT day, status_id, jobs, labour_minutes, labour_revenue, parts_revenue FROM report_job_delta
+      ) r
+      WHERE day BETWEEN ? AND ? AND (CAST(? AS smallint) IS NULL OR status_id = ?)
+      GROUP BY 1
+      HAVING SUM(jobs) <> 0
+      ORDER BY 1
+      """,
+      (rs, i) ->
+        new RevenueReportRow(
+          rs.getObject("period", LocalDate.class),
+          rs.getLong("jobs"),
+          rs.getLong("labour_minutes"),
+          rs.getDouble("labour_revenue"),
+          rs.getDouble("parts_revenue"),
+          rs.getDouble("labour_revenue") + rs.getDouble("parts_revenue")
+        ),
+      period,
+      from,
+      to,
+      statusId,
+      statusId
+    );
+  }
+
+  /// Parts used per period and product type, for jobs dated from `from` to `to` (inclusive)
+  public List<PartsUsageReportRow> partsUsage(String period, LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+      """
+      SELECT date_trunc(CAST(? AS text), day::timestamp)::date AS period, product_type, SUM(quantity) AS quantity
+      FROM (
+        SELECT day, product_type, quantity FROM report_part_daily
+        UNION ALL
+        SELECT day, product_type, quantity FROM report_part_delta
+      ) r
+      WHERE day BETWEEN ? AND ?
+      GROUP BY 1, 2
+      HAVING SUM(quantity) <> 0
+      ORDER BY 1, 2
+      """,
+      (rs, i) ->
+        new PartsUsageReportRow(
+          rs.getObject("period", LocalDate.class),
+          rs.getString("product_type"),
+          rs.getLong("quantity")
+        ),
+      period,
+      from,
+      to
+    );
+  }
+
+  /// Status transitions per period and status, for changes made from `from` to `to` (inclusive)
+  public List<StatusReportRow> statusThroughput(String period, LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+      """
+      SELECT date_trunc(CAST(? AS text), r.day::timestamp)::date AS period, r.status_id, s.name, SUM(r.transitions) AS jobs
+      FROM (
+        SELECT day, status_id, transitions FROM report_status_daily
+        UNION ALL
+        SELECT day, status_id, transitions FROM report_status_delta
+      ) r
+      LEFT JOIN job_status s ON s.id = r.status_id
+      WHERE r.day BETWEEN ? AND ?
+      GROUP BY 1, 2, 3
+      HAVING SUM(r.transitions) <> 0
+      ORDER BY 1, 2
+      """,
+      (rs, i) ->
+        new StatusReportRow(
+          rs.getObject("period", LocalDate.class),
+          rs.getShort("status_id"),
+          rs.getString("name"),
+          rs.getLong("jobs")
+        ),
+      period,
+      from,
+      to
+    );
+  }
+}
@@ -0,0 +1,66 @@
+package mainProgram.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.util.List;
+import mainProgram.events.JobPartsChangedEvent;
+import mainProgram.services.SearchCache;
+import mainProgram.table.Job;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that clears the cached search results of an entity type
+ * when one of its rows changes.
+ *
+ * <p>Registered on {@link Job} and {@link mainProgram.table.Product}. The cache
+ * is cleared right away and again after commit. The first clear stops other
+ * sessions being served results from before the write. The second drops
+ * anything cached while the transaction was still open.</p>
+ *
+ * <p>Jobs store their parts totals, and the database recomputes them when a
+ * product's price changes or parts are added or removed. So a product change
+ * clears the job results too, and so does a committed
+ * {@link JobPartsChangedEvent}.</p>
+ */
+@Component
+public class SearchCacheInvalidationListener {
+
+  private final ObjectProvider<SearchCache> searchCache;
+
+  public SearchCacheInvalidationListener(ObjectProvider<SearchCache> searchCache) {
+    this.searchCache = searchCache;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    List<String> sources = entity instanceof Job
+      ? List.of(SearchCache.JOBS)
+      : List.of(SearchCache.PRODUCTS, SearchCache.JOBS);
+    searchCache.ifAvailable((cache) -> {
+      sources.forEach(cache::invalidate);
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              sources.forEach(cache::invalidate);
+            }
+          }
+        );
+      }
+    });
+  }
+
+  /// Parts are written with JDBC, so the entity callbacks don't see the jobs' new totals
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPartsChanged(JobPartsChangedEvent event) {
+    searchCache.ifAvailable((cache) -> cache.invalidate(SearchCache.JOBS));
+  }
+}
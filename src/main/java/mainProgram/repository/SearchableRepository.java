@@ -1,7 +1,11 @@
 package mainProgram.repository;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public interface SearchableRepository<T> {
   List<T> search(String keyword);
+
+  /// Bounded search: at most `limit` matches, prefix matches first (see BaseSearchService)
+  List<T> autocomplete(String prefix, int limit, BooleanSupplier superseded);
 }
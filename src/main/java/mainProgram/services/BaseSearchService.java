@@ -1,9 +1,29 @@
 package mainProgram.services;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 ///  Each service where we want to be able to search implements this base searchService.
 
 public interface BaseSearchService<T> {
+  /// Result count used by autocomplete when the client does not ask for one
+  int AUTOCOMPLETE_DEFAULT_LIMIT = 10;
+  /// Largest result count an autocomplete client may ask for
+  int AUTOCOMPLETE_MAX_LIMIT = 50;
+
+  /// Key of this source in the unified search response (/api/search)
+  String searchSource();
+
   List<T> search(String keyword);
+
+  /// Search-as-you-type: at most `limit` matches, those starting with the prefix ranked first.
+  /// Stops as soon as `limit` matches are found, or when `superseded` reports that a newer
+  /// query from the same session has arrived (the result is then thrown away anyway).
+  List<T> autocomplete(String prefix, int limit, BooleanSupplier superseded);
+
+  /// Clamps a requested autocomplete limit to `1..AUTOCOMPLETE_MAX_LIMIT`
+  static int clampAutocompleteLimit(Integer limit) {
+    if (limit == null) return AUTOCOMPLETE_DEFAULT_LIMIT;
+    return Math.max(1, Math.min(limit, AUTOCOMPLETE_MAX_LIMIT));
+  }
 }
@@ -0,0 +1,184 @@
+package mainProgram.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import mainProgram.repository.JobPartRepository;
+import mainProgram.repository.JobRepository;
+import mainProgram.table.Job;
+import mainProgram.table.JobPart;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes full dumps of jobs and used parts as JSON Lines or CSV.
+ *
+ * <p>Rows are read from a database cursor ({@code streamAllForExport}) and written
+ * to the output one at a time. The persistence context is cleared every
+ * {@value #CLEAR_EVERY} rows, so already-written entities can be garbage
+ * collected. Memory use therefore stays flat no matter how many rows are exported.</p>
+ */
+@Service
+public class ExportService {
+
+  /** The supported output formats. */
+  public enum Format {
+    JSONL,
+    CSV,
+  }
+
+  /// Rows between persistence-context clears and output flushes
+  private static final int CLEAR_EVERY = 500;
+
+  /// One exported column: its header/field name and how to read it from a row
+  private record Column<T>(String name, Function<T, Object> value) {}
+
+  /// Job columns; the status name comes from the registry, so status proxies are never loaded
+  private static List<Column<Job>> jobColumns(JobStatusRegistry statusRegistry) {
+    return List.of(
+      new Column<>("id", Job::getId),
+      new Column<>("title", Job::getTitle),
+      new Column<>("customer_name", Job::getCustomer_name),
+      new Column<>("customer_phone", Job::getCustomer_phone),
+      new Column<>("job_description", Job::getJob_description),
+      new Column<>("work_time_minutes", Job::getWork_time_minutes),
+      new Column<>("price_per_minute", Job::getPrice_per_minute),
+      new Column<>("date", Job::getDate),
+      new Column<>("status", (job) -> statusRegistry.nameOf(job.getStatus().getId())),
+      new Column<>("labour_total", Job::getLabour_total),
+      new Column<>("parts_total", Job::getParts_total),
+      new Column<>("grand_total", Job::getGrand_total)
+    );
+  }
+
+  private static final List<Column<JobPart>> JOB_PART_COLUMNS = List.of(
+    new Column<>("id", JobPart::getId),
+    new Column<>("job_id", (part) -> part.getJob().getId()),
+    new Column<>("job_date", (part) -> part.getJob().getDate()),
+    new Column<>("product_id", (part) -> part.getProduct().getId()),
+    new Column<>("productNumber", (part) -> part.getProduct().getProductNumber()),
+    new Column<>("name", (part) -> part.getProduct().getName()),
+    new Column<>("EAN", (part) -> part.getProduct().getEAN()),
+    new Column<>("quantity", JobPart::getQuantity),
+    new Column<>("price", (part) -> part.getProduct().getPrice())
+  );
+
+  private final JobRepository jobRepository;
+  private final JobPartRepository jobPartRepository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate readOnlyTransaction;
+  private final List<Column<Job>> jobColumns;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public ExportService(
+    JobRepository jobRepository,
+    JobPartRepository jobPartRepository,
+    ObjectMapper objectMapper,
+    PlatformTransactionManager transactionManager,
+    JobStatusRegistry statusRegistry
+  ) {
+    this.jobRepository = jobRepository;
+    this.jobPartRepository = jobPartRepository;
+    this.objectMapper = objectMapper;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.jobColumns = jobColumns(statusRegistry);
+  }
+
+  /// Write every job to the output in the given format
+  public void exportJobs(Format format, OutputStream out) {
+    readOnlyTransaction.executeWithoutResult((status) -> {
+      try (Stream<Job> rows = jobRepository.streamAllForExport()) {
+        write(rows, jobColumns, format, out);
+      }
+    });
+  }
+
+  /// Write every job part (with its job and product) to the output in the given format
+  public void exportJobParts(Format format, OutputStream out) {
+    readOnlyTransaction.executeWithoutResult((status) -> {
+      try (Stream<JobPart> rows = jobPartRepository.streamAllForExport()) {
+        write(rows, JOB_PART_COLUMNS, format, out);
+      }
+    });
+  }
+
+  private <T> void write(Stream<T> rows, List<Column<T>> columns, Format format, OutputStream out) {
+    try {
+      switch (format) {
+        case JSONL -> writeJsonLines(rows, columns, out);
+        case CSV -> writeCsv(rows, columns, out);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private <T> void writeJsonLines(Stream<T> rows, List<Column<T>> columns, OutputStream out) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // One JSON object per line
+    generator.setRootValueSeparator(new SerializedString("\n"));
+    int count = 0;
+    for (T row : (Iterable<T>) rows::iterator) {
+      generator.writeStartObject();
+      for (Column<T> column : columns) {
+        generator.writeObjectField(column.name(), column.value().apply(row));
+      }
+      generator.writeEndObject();
+      if (++count % CLEAR_EVERY == 0) {
+        generator.flush();
+        entityManager.clear();
+      }
+    }
+    generator.writeRaw('\n');
+    generator.flush();
+  }
+
+  private <T> void writeCsv(Stream<T> rows, List<Column<T>> columns, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writeCsvLine(writer, columns.stream().map(Column::name).toList());
+    int count = 0;
+    for (T row : (Iterable<T>) rows::iterator) {
+      writeCsvLine(writer, columns.stream().map((column) -> column.value().apply(row)).toList());
+      if (++count % CLEAR_EVERY == 0) {
+        writer.flush();
+        entityManager.clear();
+      }
+    }
+    writer.flush();
+  }
+
+  /// Write one RFC 4180 line: fields containing separators, quotes or line breaks are quoted
+  private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) writer.write(',');
+      Object value = values.get(i);
+      if (value == null) continue;
+      String text = value.toString();
+      if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+      } else {
+        writer.write(text);
+      }
+    }
+    writer.write("\r\n");
+  }
+}
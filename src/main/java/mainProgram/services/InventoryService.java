@@ -0,0 +1,137 @@
+package mainProgram.services;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import mainProgram.dto.ProductStock;
+import mainProgram.events.JobPartsChangedEvent;
+import mainProgram.repository.ProductStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * The parts inventory: how many of each product are on the shelf, and how many of
+ * those are reserved for repairs.
+ *
+ * <p>Busy parts (screws, fuses) are added to many repairs at once. Writing every
+ * reservation to the product's stock row would make those adds queue behind the row
+ * lock. Instead, committed part changes are added to an in-memory counter per product
+ * (a {@link ConcurrentHashMap} of {@link AtomicInteger}s, so adds for different
+ * products never touch the same counter and adds for the same one are a single
+ * atomic update). Every {@code app.inventory.flush-millis} the counters are taken
+ * and written to {@code product_stock} in one statement.</p>
+ *
+ * <p>Stock read through this service includes the reservations still in memory.
+ * If the application stops before a flush, the reservations are recounted from the
+ * repairs at the next startup (see
+ * {@link mainProgram.initializer.InventorySchemaInitializer}), which also handles
+ * picked-up jobs.</p>
+ */
+@Service
+public class InventoryService {
+
+  private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+  /// Most products in one low-stock list
+  private static final int LOW_STOCK_LIMIT = 500;
+
+  private final ProductStockRepository stockRepository;
+  private final int lowStockThreshold;
+
+  /// Reservations not written to the database yet, per product ID
+  private final ConcurrentHashMap<Integer, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+  public InventoryService(
+    ProductStockRepository stockRepository,
+    @Value("${app.inventory.low-stock-threshold:5}") int lowStockThreshold
+  ) {
+    this.stockRepository = stockRepository;
+    this.lowStockThreshold = lowStockThreshold;
+  }
+
+  /// Reserve added parts and release removed ones, once the change is committed
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPartsChanged(JobPartsChangedEvent event) {
+    event.quantities().forEach(this::reserve);
+  }
+
+  private void reserve(int productId, int quantity) {
+    if (quantity == 0) return;
+    pending.computeIfAbsent(productId, (id) -> new AtomicInteger()).addAndGet(quantity);
+  }
+
+  @Scheduled(
+    fixedDelayString = "${app.inventory.flush-millis:1000}",
+    initialDelayString = "${app.inventory.flush-millis:1000}"
+  )
+  public void flushOnSchedule() {
+    try {
+      flush();
+    } catch (Exception e) {
+      logger.warn("Failed to write stock reservations, retrying later: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flushOnSchedule();
+  }
+
+  /// Writes the reservations held in memory to the database. Each counter is taken and reset in one
+  /// atomic step, so a reservation made meanwhile waits for the next flush; if the write fails, the
+  /// taken reservations are added back. Returns the number of products written.
+  public synchronized int flush() {
+    SortedMap<Integer, Integer> taken = new TreeMap<>();
+    pending.forEach((productId, counter) -> {
+      int quantity = counter.getAndSet(0);
+      if (quantity != 0) taken.put(productId, quantity);
+    });
+    if (taken.isEmpty()) return 0;
+    try {
+      return stockRepository.addReservations(taken);
+    } catch (RuntimeException e) {
+      taken.forEach(this::reserve);
+      throw e;
+    }
+  }
+
+  /// The stock of one product, including reservations not written yet; empty if the product doesn't exist.
+  /// Synchronized with flush(), so a reservation being written is never missed or counted twice.
+  public synchronized Optional<ProductStock> getStock(int productId) {
+    return stockRepository.find(productId).map((stock) -> stock.withPendingReservations(pendingFor(productId)));
+  }
+
+  /// Set the parts on the shelf after a stock count. Returns false if the product doesn't exist.
+  public boolean countStock(int productId, Integer quantity) {
+    if (quantity == null || quantity < 0) throw new IllegalArgumentException("quantity must be 0 or more");
+    return stockRepository.setOnHand(productId, quantity, LocalDateTime.now());
+  }
+
+  /// Add received parts to the shelf. Returns false if the product doesn't exist.
+  public boolean receiveStock(int productId, Integer quantity) {
+    if (quantity == null || quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+    return stockRepository.addOnHand(productId, quantity, LocalDateTime.now());
+  }
+
+  /// Counted products with fewer than `below` parts available (default app.inventory.low-stock-threshold),
+  /// fewest first. Pending reservations are written first, so the list is current.
+  public List<ProductStock> findLowStock(Integer below) {
+    int threshold = below != null ? below : lowStockThreshold;
+    flush();
+    return stockRepository.findLowStock(threshold, LOW_STOCK_LIMIT);
+  }
+
+  private int pendingFor(int productId) {
+    AtomicInteger counter = pending.get(productId);
+    return counter == null ? 0 : counter.get();
+  }
+}
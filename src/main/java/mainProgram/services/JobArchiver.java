@@ -0,0 +1,132 @@
+package mainProgram.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import mainProgram.repository.JobArchiveRepository;
+import mainProgram.repository.JobSearchIndex;
+import mainProgram.repository.JobSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves closed jobs out of the live tables into the archive.
+ *
+ * <p>Picked-up jobs that have not changed for {@code app.archive.after-days} are
+ * moved, with their parts, to {@code jobs_archive} and {@code job_part_archive}
+ * (see {@link JobArchiveRepository}). The live tables then hold only the jobs the
+ * shop is still working on, so every list, search and calendar query scans fewer
+ * rows. Archived jobs can still be found with the archive search.</p>
+ *
+ * <p>Runs on the {@code app.archive.cron} schedule, and on demand. Jobs are moved
+ * {@code app.archive.chunk-size} at a time, each chunk in its own short transaction,
+ * so a large backlog never holds locks on the jobs table for long. Archived jobs
+ * leave a tombstone, so syncing clients drop them like deleted jobs.</p>
+ */
+@Service
+public class JobArchiver {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobArchiver.class);
+
+  private final JobArchiveRepository archiveRepository;
+  private final SearchCache searchCache;
+  private final ObjectProvider<JobSearchIndex> searchIndex;
+  private final TransactionTemplate transaction;
+  private final boolean enabled;
+  private final Duration age;
+  private final int chunkSize;
+
+  /// The scheduled run and an on-demand run never overlap
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public JobArchiver(
+    JobArchiveRepository archiveRepository,
+    SearchCache searchCache,
+    ObjectProvider<JobSearchIndex> searchIndex,
+    PlatformTransactionManager transactionManager,
+    @Value("${app.archive.enabled:true}") boolean enabled,
+    @Value("${app.archive.after-days:365}") int afterDays,
+    @Value("${app.archive.chunk-size:500}") int chunkSize
+  ) {
+    this.archiveRepository = archiveRepository;
+    this.searchCache = searchCache;
+    this.searchIndex = searchIndex;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.age = Duration.ofDays(Math.max(1, afterDays));
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+  public void archiveOnSchedule() {
+    if (!enabled) return;
+    try {
+      archiveClosedJobs();
+    } catch (IllegalStateException e) {
+      logger.info("Skipped scheduled job archiving: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Archives every closed job older than the configured age, chunk by chunk.
+   *
+   * @return the number of jobs archived
+   * @throws IllegalStateException if archiving is already running
+   */
+  public int archiveClosedJobs() {
+    return archive(null);
+  }
+
+  /**
+   * Archives those of the given jobs that are closed and older than the configured age.
+   *
+   * @return the number of jobs archived
+   * @throws IllegalStateException if archiving is already running
+   */
+  public int archiveClosedJobs(Collection<Integer> jobIds) {
+    return archive(jobIds.toArray(Integer[]::new));
+  }
+
+  private int archive(Integer[] jobIds) {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("Job archiving is already running");
+    }
+    try {
+      LocalDateTime cutoff = LocalDateTime.now().minus(age);
+      int total = 0;
+      int moved;
+      do {
+        List<Integer> ids = transaction.execute((status) ->
+          archiveRepository.moveToArchive(
+            JobSpecifications.PICKED_UP_STATUS_ID, // Only picked-up jobs are closed; every other status may still change
+            cutoff,
+            jobIds,
+            chunkSize,
+            LocalDateTime.now()
+          )
+        );
+        if (!ids.isEmpty()) {
+          // Committed: drop the jobs from the in-memory search structures
+          searchCache.invalidate(SearchCache.JOBS);
+          searchIndex.ifAvailable((index) -> ids.forEach(index::remove));
+        }
+        moved = ids.size();
+        total += moved;
+      } while (moved == chunkSize);
+      if (total > 0) {
+        logger.info("Archived {} closed jobs last changed before {}", total, cutoff);
+      }
+      return total;
+    } finally {
+      running.set(false);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package mainProgram.services;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import mainProgram.events.JobChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes job changes to connected browsers over Server-Sent Events.
+ *
+ * <p>Each client gets its own bounded queue and its own virtual thread that
+ * drains the queue into the client's {@link SseEmitter}. Publishing a change
+ * only offers it to the queues and never blocks, so a slow client can only
+ * stall its own thread. If a client falls so far behind that its queue is
+ * full, the connection is closed instead of buffering more; the browser's
+ * EventSource reconnects and catches up through the change feed
+ * ({@code /api/jobs/changes}).</p>
+ */
+@Service
+public class JobEventBroadcaster {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobEventBroadcaster.class);
+
+  private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+  private final int bufferSize;
+  private final long heartbeatMillis;
+
+  /**
+   * @param bufferSize      the maximum number of pending events per client
+   * @param heartbeatMillis how long a connection may be idle before a heartbeat comment is sent
+   */
+  public JobEventBroadcaster(
+    @Value("${app.sse.buffer-size:256}") int bufferSize,
+    @Value("${app.sse.heartbeat-millis:25000}") long heartbeatMillis
+  ) {
+    this.bufferSize = bufferSize;
+    this.heartbeatMillis = heartbeatMillis;
+  }
+
+  /// Register a new client and start the thread that writes to it
+  public SseEmitter subscribe() {
+    // No server-side timeout; the heartbeat detects dead connections
+    SseEmitter emitter = new SseEmitter(0L);
+    Client client = new Client(emitter, new ArrayBlockingQueue<>(bufferSize));
+    emitter.onCompletion(client::close);
+    emitter.onTimeout(client::close);
+    emitter.onError((e) -> client.close());
+    clients.add(client);
+    Thread.ofVirtual().name("sse-jobs").start(client::drain);
+    return emitter;
+  }
+
+  /// Fan a committed job change out to every client queue
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onJobChanged(JobChangedEvent event) {
+    for (Client client : clients) {
+      if (!client.queue.offer(event)) {
+        client.overflowed = true;
+      }
+    }
+  }
+
+  /// Number of currently connected clients
+  public int getClientCount() {
+    return clients.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    clients.forEach((client) -> client.emitter.complete());
+  }
+
+  /// One connected browser: its emitter and its bounded queue of pending events
+  private final class Client {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<JobChangedEvent> queue;
+    private volatile boolean open = true;
+    private volatile boolean overflowed = false;
+
+    private Client(SseEmitter emitter, BlockingQueue<JobChangedEvent> queue) {
+      this.emitter = emitter;
+      this.queue = queue;
+    }
+
+    private void drain() {
+      try {
+        while (open) {
+          JobChangedEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+          if (overflowed) {
+            logger.info("Closing SSE client that fell more than {} events behind", bufferSize);
+            emitter.complete();
+            break;
+          }
+          if (event == null) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          } else {
+            Object data = event.type() == JobChangedEvent.Type.DELETED ? Map.of("id", event.jobId()) : event.job();
+            emitter.send(SseEmitter.event().name(event.type().eventName()).data(data, MediaType.APPLICATION_JSON));
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        // The client went away or the emitter was completed elsewhere
+        logger.debug("SSE client disconnected: {}", e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        close();
+      }
+    }
+
+    private void close() {
+      open = false;
+      clients.remove(this);
+    }
+  }
+}
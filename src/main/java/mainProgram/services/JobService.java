@@ -1,29 +1,91 @@
 package mainProgram.services;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import mainProgram.dto.JobBulkReschedule;
+import mainProgram.dto.JobBulkStatus;
+import mainProgram.dto.JobChanges;
+import mainProgram.dto.JobSchedulePatch;
+import mainProgram.dto.JobStatusPatch;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.events.JobChangedEvent;
+import mainProgram.events.JobPartsChangedEvent;
+import mainProgram.repository.JobArchiveRepository;
+import mainProgram.repository.JobChangeFeedRepository;
 import mainProgram.repository.JobPartRepository;
 import mainProgram.repository.JobRepository;
-import mainProgram.repository.ProductRepository;
+import mainProgram.repository.JobSearchIndexListener;
+import mainProgram.repository.JobTombstoneRepository;
+import mainProgram.repository.SearchCacheInvalidationListener;
+import mainProgram.repository.SearchableRepository;
 import mainProgram.table.Job;
 import mainProgram.table.JobPart;
-import mainProgram.table.Product;
+import mainProgram.table.JobTombstone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JobService implements BaseSearchService<Job> {
 
+  private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+  /// Most archived jobs returned by one archive search
+  private static final int ARCHIVE_SEARCH_LIMIT = 200;
+
   private final JobRepository jobRepository;
   private final JobPartRepository jobPartRepository;
-  private final ProductRepository productRepository;
+  private final JobTombstoneRepository tombstoneRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final SearchableRepository<Job> jobSearch;
+  private final SearchCache searchCache;
+  private final JobStatusRegistry statusRegistry;
+  private final SearchCacheInvalidationListener searchCacheListener;
+  private final JobSearchIndexListener searchIndexListener;
+  private final JobArchiveRepository archiveRepository;
+  private final JobChangeFeedRepository changeFeedRepository;
+  private final Duration tombstoneRetention;
 
   public JobService(
     JobRepository jobRepository,
     JobPartRepository jobPartRepository,
-    ProductRepository productRepository
+    JobTombstoneRepository tombstoneRepository,
+    ApplicationEventPublisher eventPublisher,
+    @Qualifier("jobSearch") SearchableRepository<Job> jobSearch,
+    SearchCache searchCache,
+    JobStatusRegistry statusRegistry,
+    SearchCacheInvalidationListener searchCacheListener,
+    JobSearchIndexListener searchIndexListener,
+    JobArchiveRepository archiveRepository,
+    JobChangeFeedRepository changeFeedRepository,
+    @Value("${app.changes.tombstone-retention-days:30}") int tombstoneRetentionDays
   ) {
     this.jobRepository = jobRepository;
     this.jobPartRepository = jobPartRepository;
-    this.productRepository = productRepository;
+    this.tombstoneRepository = tombstoneRepository;
+    this.eventPublisher = eventPublisher;
+    this.jobSearch = jobSearch;
+    this.searchCache = searchCache;
+    this.statusRegistry = statusRegistry;
+    this.searchCacheListener = searchCacheListener;
+    this.searchIndexListener = searchIndexListener;
+    this.archiveRepository = archiveRepository;
+    this.changeFeedRepository = changeFeedRepository;
+    this.tombstoneRetention = Duration.ofDays(Math.max(1, tombstoneRetentionDays));
   }
 
   public Job getJobById(int id) {
@@ -36,35 +98,220 @@ public class JobService implements BaseSearchService<Job> {
   }
 
   /// Add a new product to a repair, using the JobPart join-table
+  @Transactional
   public void addProductToRepair(int repairId, int productId, int quantity) {
-    // Check if the repair and product exist
-    Job repair = getJobById(repairId);
-    Product product = productRepository
-      .findById(productId)
-      .orElseThrow(() -> new RuntimeException("Product not found"));
-
-    // Check if the product is already linked to the part, if so adjust only the amount. If not, create a new jobPart
-    JobPart existingProduct = jobPartRepository
-      .findByJobId(repairId)
-      .stream()
-      .filter((jobpart) -> jobpart.getProduct().getId() == (productId))
-      .findFirst()
-      .orElse(null);
-
-    if (existingProduct != null) {
-      existingProduct.addQuantity(quantity);
-      jobPartRepository.save(existingProduct); // ensure updated quantity persisted
-    } else {
-      jobPartRepository.save(new JobPart(repair, product, quantity));
+    addProductsToRepairs(List.of(new RepairPartRequest(repairId, productId, quantity)));
+  }
+
+  /// Add many products to one or more repairs in a single transaction.
+  /// Requests for the same job and product are merged first. Then every line is sent as an
+  /// atomic upsert (insert, or increase the quantity of the existing line) in one JDBC batch.
+  /// Concurrent adds of the same product can't create duplicate lines or lose an increment.
+  /// Lines are written in (job, product) order, so two overlapping batches lock rows in the
+  /// same order and can't deadlock. If a job or product doesn't exist, a product is archived or a
+  /// quantity is below 1, nothing is written.
+  /// The added parts are reserved in stock once the transaction commits.
+  @Transactional
+  public void addProductsToRepairs(List<RepairPartRequest> requests) {
+    Map<PartKey, Integer> quantities = new TreeMap<>(
+      Comparator.comparingInt(PartKey::jobId).thenComparingInt(PartKey::productId)
+    );
+    for (RepairPartRequest request : requests) {
+      if (request.repairId() == null || request.productId() == null) {
+        throw new IllegalArgumentException("repairId and productId are required");
+      }
+      if (request.quantityOrDefault() < 1) {
+        throw new IllegalArgumentException("quantity must be at least 1");
+      }
+      quantities.merge(new PartKey(request.repairId(), request.productId()), request.quantityOrDefault(), Integer::sum);
     }
+
+    List<RepairPartRequest> lines = new ArrayList<>(quantities.size());
+    Map<Integer, Integer> perProduct = new HashMap<>();
+    quantities.forEach((key, quantity) -> {
+      lines.add(new RepairPartRequest(key.jobId(), key.productId(), quantity));
+      perProduct.merge(key.productId(), quantity, Integer::sum);
+    });
+    try {
+      jobPartRepository.addQuantities(lines);
+    } catch (DataIntegrityViolationException e) {
+      // Foreign key violation (the job or product doesn't exist), or an archived product
+      // (rejected by a trigger, see ArchiveSchemaInitializer)
+      throw new IllegalArgumentException("Unknown repairId or productId, or the product is archived");
+    }
+    eventPublisher.publishEvent(JobPartsChangedEvent.added(perProduct));
   }
 
-  /// Custom search function for job/ repair
+  /// Remove a product from a repair (the whole line), releasing its stock reservation once committed.
+  /// Returns false if the product is not on the repair.
+  @Transactional
+  public boolean removeProductFromRepair(int repairId, int productId) {
+    Map<Integer, Integer> removed = jobPartRepository.removeLines(repairId, productId);
+    if (removed.isEmpty()) return false;
+    eventPublisher.publishEvent(JobPartsChangedEvent.removed(removed));
+    return true;
+  }
+
+  /// A job part line: one product on one job
+  private record PartKey(int jobId, int productId) {}
+
+  /// Delete a job together with its parts, leaving a tombstone for the change feed.
+  /// Returns false if the job does not exist.
+  @Transactional
+  public boolean deleteJob(int id) {
+    if (!jobRepository.existsById(id)) {
+      return false;
+    }
+    Map<Integer, Integer> removedParts = jobPartRepository.removeLines(id, null);
+    jobRepository.deleteById(id);
+    tombstoneRepository.save(new JobTombstone(id, LocalDateTime.now()));
+    // Delivered to listeners once this transaction commits
+    eventPublisher.publishEvent(JobChangedEvent.deleted(id));
+    if (!removedParts.isEmpty()) eventPublisher.publishEvent(JobPartsChangedEvent.removed(removedParts));
+    return true;
+  }
+
+  /// Move a job and/or change its duration with one conditional UPDATE (calendar drag and resize).
+  /// Empty if the job does not exist or was changed after the client read `version`.
+  @Transactional
+  public Optional<Job> rescheduleJob(int id, JobSchedulePatch patch) {
+    if (patch.version() == null) throw new IllegalArgumentException("version is required");
+    if (patch.date() == null && patch.workTimeMinutes() == null) {
+      throw new IllegalArgumentException("Nothing to change: send date and/or work_time_minutes");
+    }
+    if (patch.workTimeMinutes() != null && patch.workTimeMinutes() < 0) {
+      throw new IllegalArgumentException("work_time_minutes must not be negative");
+    }
+    return jobRepository
+      .reschedule(id, patch.version(), patch.date(), patch.workTimeMinutes())
+      .map(this::updatedWithoutHibernate);
+  }
+
+  /// Change a job's status with one conditional UPDATE; the status is checked in memory.
+  /// Empty if the job does not exist or was changed after the client read `version`.
+  @Transactional
+  public Optional<Job> changeJobStatus(int id, JobStatusPatch patch) {
+    if (patch.version() == null) throw new IllegalArgumentException("version is required");
+    if (!statusRegistry.exists(patch.statusId())) throw new IllegalArgumentException("Invalid status_id");
+    return jobRepository.changeStatus(id, patch.version(), patch.statusId()).map(this::updatedWithoutHibernate);
+  }
+
+  /// Move every job in a time window with one UPDATE; returns the IDs of the moved jobs.
+  /// Not guarded by versions: the window is the selection, whatever the clients last saw.
+  @Transactional
+  public List<Integer> rescheduleJobs(JobBulkReschedule request) {
+    if (request.from() == null || request.to() == null || request.offsetMinutes() == null) {
+      throw new IllegalArgumentException("from, to and offsetMinutes are required");
+    }
+    if (!request.from().isBefore(request.to())) throw new IllegalArgumentException("from must be before to");
+    if (request.statusId() != null && !statusRegistry.exists(request.statusId())) {
+      throw new IllegalArgumentException("Invalid status_id");
+    }
+    if (request.offsetMinutes() == 0) return List.of();
+    return updatedWithoutHibernate(
+      jobRepository.shiftDates(request.from(), request.to(), request.statusId(), request.offsetMinutes())
+    );
+  }
+
+  /// Give many jobs the same status with one UPDATE; returns the IDs of the jobs that changed.
+  /// Unknown IDs and jobs that already have the status are skipped.
+  @Transactional
+  public List<Integer> changeJobStatuses(JobBulkStatus request) {
+    if (request.ids() == null || request.ids().contains(null)) throw new IllegalArgumentException("ids are required");
+    if (!statusRegistry.exists(request.statusId())) throw new IllegalArgumentException("Invalid status_id");
+    if (request.ids().isEmpty()) return List.of();
+    return updatedWithoutHibernate(jobRepository.changeStatuses(request.ids(), request.statusId()));
+  }
+
+  /// A job written with SQL skips the JPA entity listeners: run them by hand, and announce the change
+  private Job updatedWithoutHibernate(Job job) {
+    searchCacheListener.onChange(job);
+    searchIndexListener.onSave(job);
+    // Delivered to listeners once this transaction commits
+    eventPublisher.publishEvent(JobChangedEvent.updated(job));
+    return job;
+  }
+
+  /// As above for a set-based update; the search cache is invalidated once for all of them
+  private List<Integer> updatedWithoutHibernate(List<Job> jobs) {
+    if (jobs.isEmpty()) return List.of();
+    searchCacheListener.onChange(jobs.get(0));
+    for (Job job : jobs) {
+      searchIndexListener.onSave(job);
+      eventPublisher.publishEvent(JobChangedEvent.updated(job));
+    }
+    return jobs.stream().map(Job::getId).sorted().toList();
+  }
+
+  /// Collect the jobs changed and deleted since a client's cursor (see ChangeFeedSchemaInitializer).
+  /// The new cursor is the oldest transaction still running before the query, so a change that
+  /// commits during or after the query is returned next time.
+  /// Without a cursor only the current cursor is returned, which lets a client start syncing.
+  /// A cursor older than the pruned tombstones only gets a new cursor and `resync`.
+  @Transactional(readOnly = true)
+  public JobChanges getChangesSince(Long since) {
+    long cursor = changeFeedRepository.currentCursor();
+    if (since == null) {
+      return new JobChanges(cursor, false, List.of(), List.of());
+    }
+    if (since <= changeFeedRepository.prunedThrough()) {
+      return new JobChanges(cursor, true, List.of(), List.of());
+    }
+    return new JobChanges(
+      cursor,
+      false,
+      jobRepository.findChangedSince(since),
+      tombstoneRepository.findDeletedIdsSince(since)
+    );
+  }
+
+  /// Tombstones are kept for app.changes.tombstone-retention-days; older ones are pruned nightly.
+  /// Clients that haven't synced since are told to reload (see getChangesSince).
+  @Scheduled(cron = "${app.changes.prune-cron:0 45 3 * * *}")
+  @Transactional
+  public void pruneTombstones() {
+    int pruned = changeFeedRepository.pruneTombstones(LocalDateTime.now().minus(tombstoneRetention));
+    if (pruned > 0) {
+      logger.info("Pruned {} job tombstones older than {}", pruned, tombstoneRetention);
+    }
+  }
+
+  @Override
+  public String searchSource() {
+    return SearchCache.JOBS;
+  }
+
+  /// Custom search function for job/ repair (database or in-memory index, see SearchConfig)
   @Override
   public List<Job> search(String keyword) {
     if (keyword == null || keyword.isBlank()) {
       return List.of();
     }
-    return jobRepository.search(keyword);
+    return searchCache.get(SearchCache.JOBS, "search", keyword, jobSearch::search, () -> false);
+  }
+
+  /// Search the archived jobs instead of the live ones (opt-in, see JobArchiver); newest first, at most
+  /// ARCHIVE_SEARCH_LIMIT matches. Not cached: the archive is searched rarely, and only on request.
+  @Transactional(readOnly = true)
+  public List<Job> searchArchive(String keyword) {
+    if (keyword == null || keyword.isBlank()) {
+      return List.of();
+    }
+    return archiveRepository.search(keyword.trim(), ARCHIVE_SEARCH_LIMIT);
+  }
+
+  /// Bounded search-as-you-type for jobs (see BaseSearchService)
+  @Override
+  public List<Job> autocomplete(String prefix, int limit, BooleanSupplier superseded) {
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    return searchCache.get(
+      SearchCache.JOBS,
+      "autocomplete:" + limit,
+      prefix,
+      (keyword) -> jobSearch.autocomplete(keyword, limit, superseded),
+      superseded
+    );
   }
 }
@@ -0,0 +1,116 @@
+package mainProgram.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import mainProgram.dto.JobStatusView;
+import mainProgram.repository.JobStatusRepository;
+import mainProgram.table.JobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory copy of the job_status table.
+ *
+ * <p>The table holds a handful of rows fixed by
+ * {@link mainProgram.initializer.JobStatusInitializer}, which loads them at startup
+ * into an array indexed by status ID. Validating a {@code status.id} or looking up a
+ * status name is then an array lookup instead of a query. The array is never
+ * modified. A change replaces it with a new one, so readers need no locking.</p>
+ *
+ * <p>Entries are handed out as read-only {@link JobStatusView}s, never as entities.
+ * Jobs keep their lazy, uninitialized status proxy; its ID needs no query, and the
+ * name is read from here when a job is serialized or rendered (see
+ * {@link mainProgram.config.JacksonConfig}). Status changes made through JPA are
+ * applied once they commit (see {@link mainProgram.repository.JobStatusRegistryListener}).</p>
+ */
+@Service
+public class JobStatusRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(JobStatusRegistry.class);
+
+  /// Index = status ID; null where no status has that ID. Replaced, never modified.
+  private volatile JobStatusView[] byId = new JobStatusView[0];
+
+  private final JobStatusRepository repository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public JobStatusRegistry(JobStatusRepository repository) {
+    this.repository = repository;
+  }
+
+  /// Reload every status from the database (one query). Called at startup; requests never load it.
+  public synchronized void refresh() {
+    JobStatusView[] loaded = new JobStatusView[0];
+    for (JobStatus status : repository.findAll()) {
+      loaded = with(loaded, new JobStatusView(status.getId(), status.getName()));
+    }
+    byId = loaded;
+    logger.info("Job status registry loaded: {} statuses", all().size());
+  }
+
+  /// Add or rename one status, e.g. after an admin change
+  public synchronized void put(JobStatus status) {
+    byId = with(byId, new JobStatusView(status.getId(), status.getName()));
+  }
+
+  /// Forget one status
+  public synchronized void remove(Short id) {
+    JobStatusView[] current = byId;
+    if (id == null || id < 0 || id >= current.length) return;
+    JobStatusView[] next = current.clone();
+    next[id] = null;
+    byId = next;
+  }
+
+  /// True if a status with this ID exists
+  public boolean exists(Short id) {
+    return entry(id) != null;
+  }
+
+  /// The status with this ID
+  public Optional<JobStatusView> find(Short id) {
+    return Optional.ofNullable(entry(id));
+  }
+
+  /// The name of the status with this ID, or null if there is none (used by the templates)
+  public String nameOf(Short id) {
+    JobStatusView entry = entry(id);
+    return entry == null ? null : entry.name();
+  }
+
+  /// Every status, ordered by ID
+  public List<JobStatusView> all() {
+    List<JobStatusView> statuses = new ArrayList<>();
+    for (JobStatusView entry : byId) {
+      if (entry != null) statuses.add(entry);
+    }
+    return statuses;
+  }
+
+  /// The status to put on a job: an uninitialized reference in the current persistence context,
+  /// so saving the job needs no query to load or check the status.
+  /// Throws IllegalArgumentException("Invalid status_id") if the ID is unknown.
+  public JobStatus resolve(Short id) {
+    if (!exists(id)) throw new IllegalArgumentException("Invalid status_id");
+    return entityManager.getReference(JobStatus.class, id);
+  }
+
+  private JobStatusView entry(Short id) {
+    JobStatusView[] current = byId;
+    return id == null || id < 0 || id >= current.length ? null : current[id];
+  }
+
+  /// A copy of the array with one entry set, grown if needed
+  private static JobStatusView[] with(JobStatusView[] entries, JobStatusView entry) {
+    JobStatusView[] next = Arrays.copyOf(entries, Math.max(entries.length, entry.id() + 1));
+    next[entry.id()] = entry;
+    return next;
+  }
+}
@@ -0,0 +1,111 @@
+package mainProgram.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import mainProgram.dto.ProductLookupResult;
+import mainProgram.repository.ProductRepository;
+import mainProgram.table.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory catalogue of products keyed by EAN and by product number.
+ *
+ * <p>Barcode scanners send one exact code per part. Looking it up here is a hash
+ * lookup, instead of the four-column {@code LIKE} search in
+ * {@link ProductRepository#search(String)}. The catalogue is loaded at startup and
+ * kept in sync by {@link mainProgram.repository.ProductCatalogueListener}, which
+ * forwards committed product inserts, updates, archivals and deletes. The database enforces
+ * the same uniqueness with unique indexes on both columns (over the products in use).</p>
+ */
+@Service
+public class ProductCatalogue {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductCatalogue.class);
+
+  private final Map<String, Product> byEan = new ConcurrentHashMap<>();
+  private final Map<String, Product> byProductNumber = new ConcurrentHashMap<>();
+  /// Codes currently indexed per product ID, so an edit can drop the old keys
+  private final Map<Integer, String[]> keysById = new ConcurrentHashMap<>();
+
+  private final ProductRepository productRepository;
+
+  public ProductCatalogue(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  /// Load every product once the application has started (and after bulk imports)
+  @EventListener(ApplicationReadyEvent.class)
+  public void reload() {
+    // Query first, so lookups keep answering from the old entries meanwhile
+    List<Product> products = productRepository.findByArchivedAtIsNull();
+    synchronized (this) {
+      byEan.clear();
+      byProductNumber.clear();
+      keysById.clear();
+      products.forEach(this::put);
+    }
+    logger.info("Product catalogue loaded: {} products", keysById.size());
+  }
+
+  /// Add or replace a product; an archived product is only removed
+  public synchronized void put(Product product) {
+    remove(product.getId());
+    if (product.isArchived()) return;
+    String ean = normalize(product.getEAN());
+    String productNumber = normalize(product.getProductNumber());
+    if (ean != null) byEan.put(ean, product);
+    if (productNumber != null) byProductNumber.put(productNumber, product);
+    keysById.put(product.getId(), new String[] { ean, productNumber });
+  }
+
+  /// Remove a product
+  public synchronized void remove(int productId) {
+    String[] keys = keysById.remove(productId);
+    if (keys == null) return;
+    // Only drop a key that still points at this product; another product may have taken the code over
+    if (keys[0] != null) byEan.computeIfPresent(keys[0], (k, p) -> p.getId() == productId ? null : p);
+    if (keys[1] != null) byProductNumber.computeIfPresent(keys[1], (k, p) -> p.getId() == productId ? null : p);
+  }
+
+  /// Find a product by its exact EAN
+  public Optional<Product> findByEan(String ean) {
+    String key = normalize(ean);
+    return key == null ? Optional.empty() : Optional.ofNullable(byEan.get(key));
+  }
+
+  /// Find a product by its exact product number
+  public Optional<Product> findByProductNumber(String productNumber) {
+    String key = normalize(productNumber);
+    return key == null ? Optional.empty() : Optional.ofNullable(byProductNumber.get(key));
+  }
+
+  /// Resolve a scanned code: tried as an EAN first, then as a product number
+  public Optional<Product> findByCode(String code) {
+    return findByEan(code).or(() -> findByProductNumber(code));
+  }
+
+  /// Resolve a batch of scanned codes in one call, keeping the scan order
+  public ProductLookupResult findByCodes(List<String> codes) {
+    Map<String, Product> found = new LinkedHashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String code : codes) {
+      findByCode(code).ifPresentOrElse((product) -> found.put(code, product), () -> missing.add(code));
+    }
+    return new ProductLookupResult(found, missing);
+  }
+
+  /// Codes are compared exactly, ignoring surrounding whitespace from the scanner
+  private static String normalize(String code) {
+    if (code == null) return null;
+    String trimmed = code.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+}
@@ -0,0 +1,580 @@
+package mainProgram.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import mainProgram.dto.ProductImportStatus;
+import mainProgram.dto.ProductImportStatus.RowError;
+import mainProgram.dto.ProductImportStatus.State;
+import mainProgram.repository.ProductRepository;
+import mainProgram.table.Product;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports supplier price lists (CSV or JSON) into the product table.
+ *
+ * <p>The upload is spooled to a temporary file and imported in the background.
+ * One reader thread streams the file and cuts it into chunks of
+ * {@code app.products.import.chunk-size} rows. A pool of
+ * {@code app.products.import.workers} threads parses, validates and writes the
+ * chunks in parallel. Each chunk is one transaction with one JDBC batch of upserts,
+ * matched on EAN, or on product number for rows without an EAN (or for products
+ * that don't have an EAN yet, see {@link ProductRepository#upsertByCode}). The reader waits
+ * while every worker is busy and one more chunk is queued per worker. Memory use
+ * therefore depends on the chunk size, not on the size of the file.</p>
+ *
+ * <p>When a code appears more than once in the same chunk, the last row wins.
+ * Chunks are written in parallel, so for repeats in different chunks any row may win.</p>
+ *
+ * <p>A chunk the database rejects is retried one row at a time, one transaction
+ * per row, so the bad rows are reported and the rest are still imported. The writes bypass JPA, so after
+ * every chunk the product search cache and the Hibernate product caches are
+ * cleared. The {@link ProductCatalogue} is reloaded when the import finishes.</p>
+ *
+ * <p>CSV files need a header row. The delimiter may be {@code ,} or {@code ;},
+ * and fields may be quoted, but a quoted field cannot span lines. JSON files hold
+ * one array of objects. Columns and keys are matched case-insensitively, and the
+ * Danish names are accepted too (see {@link #FIELD_ALIASES}).</p>
+ */
+@Service
+public class ProductImportService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+  /** The supported input formats. */
+  public enum Format {
+    CSV,
+    JSON;
+
+    /// The format of an upload, from its file extension or content type
+    public static Format of(String fileName, String contentType) {
+      String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+      String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+      if (name.endsWith(".json") || type.contains("json")) return JSON;
+      if (name.endsWith(".csv") || name.endsWith(".txt") || type.contains("csv")) return CSV;
+      throw new IllegalArgumentException("Unsupported file type: expected .csv or .json");
+    }
+  }
+
+  /// Accepted column names per product field, compared without case, spaces, '_' or '-'
+  private static final Map<String, String> FIELD_ALIASES = Map.ofEntries(
+    Map.entry("ean", "EAN"),
+    Map.entry("barcode", "EAN"),
+    Map.entry("gtin", "EAN"),
+    Map.entry("productnumber", "productNumber"),
+    Map.entry("varenr", "productNumber"),
+    Map.entry("varenummer", "productNumber"),
+    Map.entry("sku", "productNumber"),
+    Map.entry("name", "name"),
+    Map.entry("navn", "name"),
+    Map.entry("type", "type"),
+    Map.entry("category", "type"),
+    Map.entry("kategori", "type"),
+    Map.entry("price", "price"),
+    Map.entry("pris", "price")
+  );
+
+  /// Longest text the product columns hold
+  private static final int MAX_TEXT_LENGTH = 255;
+
+  /// Finished imports kept for the status endpoint
+  private static final int KEEP_FINISHED = 20;
+
+  /// One input row: its line (CSV) or position (JSON), and its fields by product field name.
+  /// For CSV the fields are split from the line on the worker thread, not by the reader.
+  private record SourceRow(long row, Supplier<Map<String, String>> fields) {}
+
+  /// A validated row waiting to be written
+  private record ValidRow(long row, Product product) {}
+
+  private final ProductRepository productRepository;
+  private final ProductCatalogue productCatalogue;
+  private final SearchCache searchCache;
+  private final EntityManagerFactory entityManagerFactory;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transaction;
+  private final int chunkSize;
+  private final int workers;
+  private final ExecutorService workerPool;
+
+  /// Imports by ID, oldest first
+  private final Map<String, ImportJob> imports = new LinkedHashMap<>();
+  /// Only one import runs at a time
+  private final AtomicReference<ImportJob> running = new AtomicReference<>();
+
+  public ProductImportService(
+    ProductRepository productRepository,
+    ProductCatalogue productCatalogue,
+    SearchCache searchCache,
+    EntityManagerFactory entityManagerFactory,
+    ObjectMapper objectMapper,
+    PlatformTransactionManager transactionManager,
+    @Value("${app.products.import.chunk-size:1000}") int chunkSize,
+    @Value("${app.products.import.workers:4}") int workers
+  ) {
+    this.productRepository = productRepository;
+    this.productCatalogue = productCatalogue;
+    this.searchCache = searchCache;
+    this.entityManagerFactory = entityManagerFactory;
+    this.objectMapper = objectMapper;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.chunkSize = Math.max(1, chunkSize);
+    this.workers = Math.max(1, workers);
+    this.workerPool = Executors.newFixedThreadPool(this.workers);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workerPool.shutdownNow();
+  }
+
+  /**
+   * Starts importing an uploaded price list in the background.
+   *
+   * @param upload      the uploaded file
+   * @param fileName    the original file name
+   * @param contentType the upload's content type, used when the file name has no known extension
+   * @return the status of the new import
+   * @throws IllegalArgumentException if the file is neither CSV nor JSON
+   * @throws IllegalStateException    if another import is still running
+   * @throws IOException              if the upload cannot be spooled to disk
+   */
+  public ProductImportStatus start(InputStreamSource upload, String fileName, String contentType) throws IOException {
+    Format format = Format.of(fileName, contentType);
+    ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName);
+    if (!running.compareAndSet(null, job)) {
+      throw new IllegalStateException("Another product import is still running");
+    }
+    Path file;
+    try {
+      file = Files.createTempFile("product-import-", "." + format.name().toLowerCase(Locale.ROOT));
+      try (InputStream in = upload.getInputStream()) {
+        Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      job.totalBytes = Files.size(file);
+    } catch (IOException e) {
+      running.set(null);
+      throw e;
+    }
+    remember(job);
+    Thread.ofVirtual().name("product-import-" + job.id).start(() -> run(job, file, format));
+    logger.info("Product import {} started: {} ({} bytes)", job.id, fileName, job.totalBytes);
+    return job.status();
+  }
+
+  /// The progress of an import, if it is still known
+  public Optional<ProductImportStatus> status(String id) {
+    synchronized (imports) {
+      return Optional.ofNullable(imports.get(id)).map(ImportJob::status);
+    }
+  }
+
+  /// Reads the file and hands chunks to the workers, then waits for them and refreshes the caches
+  private void run(ImportJob job, Path file, Format format) {
+    // Every worker busy plus one queued chunk each; the reader blocks beyond that
+    int maxChunksInFlight = workers * 2;
+    Semaphore inFlight = new Semaphore(maxChunksInFlight);
+    Consumer<List<SourceRow>> submit = (chunk) -> {
+      inFlight.acquireUninterruptibly();
+      try {
+        workerPool.execute(() -> {
+          try {
+            importChunk(job, chunk);
+          } catch (RuntimeException e) {
+            logger.error("Product import {}: chunk failed", job.id, e);
+            chunk.forEach((row) -> job.reject(row.row(), "Not imported: " + e.getMessage()));
+          } finally {
+            inFlight.release();
+          }
+        });
+      } catch (RuntimeException e) {
+        inFlight.release();
+        throw e;
+      }
+    };
+
+    State state = State.COMPLETED;
+    String message = null;
+    try (InputStream in = new CountingInputStream(Files.newInputStream(file), job.bytesRead)) {
+      if (format == Format.CSV) {
+        readCsv(in, job, submit);
+      } else {
+        readJson(in, job, submit);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Product import {} stopped: {}", job.id, e.getMessage());
+      state = State.FAILED;
+      message = e.getMessage();
+    } finally {
+      // Wait for the chunks already handed out
+      inFlight.acquireUninterruptibly(maxChunksInFlight);
+      inFlight.release(maxChunksInFlight);
+      try {
+        Files.deleteIfExists(file);
+        evictProductCaches();
+        productCatalogue.reload();
+      } catch (IOException | RuntimeException e) {
+        logger.error("Product import {}: cleanup failed", job.id, e);
+      } finally {
+        job.finish(state, message);
+        running.set(null);
+        logger.info(
+          "Product import {} {}: {} rows read, {} imported, {} rejected",
+          job.id,
+          state,
+          job.rowsRead.get(),
+          job.rowsImported.get(),
+          job.rowsFailed.get()
+        );
+      }
+    }
+  }
+
+  /// Validates one chunk and writes it as one batch, falling back to one row at a time if the batch fails
+  private void importChunk(ImportJob job, List<SourceRow> chunk) {
+    // One row per code: a later row for the same code replaces the earlier one. Writing in code
+    // order makes concurrent chunks lock shared rows in the same order.
+    Map<String, ValidRow> byCode = new TreeMap<>();
+    int replaced = 0;
+    for (SourceRow source : chunk) {
+      try {
+        Product product = toProduct(source.fields().get());
+        String code = product.getEAN() != null ? "E" + product.getEAN() : "P" + product.getProductNumber();
+        if (byCode.put(code, new ValidRow(source.row(), product)) != null) replaced++;
+      } catch (IllegalArgumentException e) {
+        job.reject(source.row(), e.getMessage());
+      }
+    }
+    if (byCode.isEmpty()) return;
+
+    List<ValidRow> rows = new ArrayList<>(byCode.values());
+    try {
+      transaction.executeWithoutResult((status) ->
+        productRepository.upsertByCode(rows.stream().map(ValidRow::product).toList())
+      );
+      job.rowsImported.addAndGet(rows.size() + replaced);
+    } catch (DataAccessException batchError) {
+      // A single bad row fails the whole batch; retry the rows one by one to find it
+      job.rowsImported.addAndGet(replaced);
+      for (ValidRow row : rows) {
+        try {
+          transaction.executeWithoutResult((status) -> productRepository.upsertByCode(List.of(row.product())));
+          job.rowsImported.incrementAndGet();
+        } catch (DataAccessException e) {
+          job.reject(row.row(), rootMessage(e));
+        }
+      }
+    }
+    evictProductCaches();
+  }
+
+  /// Validates the fields of one row and turns them into an (unsaved) product
+  private static Product toProduct(Map<String, String> fields) {
+    String ean = text(fields, "EAN");
+    String productNumber = text(fields, "productNumber");
+    String name = text(fields, "name");
+    String type = text(fields, "type");
+    String price = text(fields, "price");
+
+    if (ean == null && productNumber == null) throw new IllegalArgumentException("Missing EAN and product number");
+    if (name == null) throw new IllegalArgumentException("Missing name");
+    if (price == null) throw new IllegalArgumentException("Missing price");
+    return new Product(productNumber, name, ean, type, parsePrice(price));
+  }
+
+  /// A trimmed field, or null if it is missing or blank
+  private static String text(Map<String, String> fields, String field) {
+    String value = fields.get(field);
+    if (value == null || value.isBlank()) return null;
+    value = value.strip();
+    if (value.length() > MAX_TEXT_LENGTH) {
+      throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+    }
+    return value;
+  }
+
+  /// Accepts "1234.50", "1234,50" and "1.234,50"
+  private static double parsePrice(String value) {
+    String number = value.replace(" ", "");
+    if (number.contains(",")) number = number.replace(".", "").replace(',', '.');
+    try {
+      double price = Double.parseDouble(number);
+      if (!Double.isFinite(price) || price < 0) throw new NumberFormatException();
+      return price;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid price: " + value);
+    }
+  }
+
+  /// Streams a CSV file: the header decides the delimiter and which column is which
+  private void readCsv(InputStream in, ImportJob job, Consumer<List<SourceRow>> submit) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    String header = reader.readLine();
+    long line = 1;
+    if (header == null) throw new IllegalArgumentException("The file is empty");
+    if (header.startsWith("\uFEFF")) header = header.substring(1); // Byte order mark
+    char delimiter = header.chars().filter((c) -> c == ';').count() > header.chars().filter((c) -> c == ',').count()
+      ? ';'
+      : ',';
+
+    List<String> columns = splitCsv(header, delimiter);
+    String[] fieldByColumn = new String[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      fieldByColumn[i] = FIELD_ALIASES.get(normalizeKey(columns.get(i)));
+    }
+    requireCodeAndPrice(List.of(fieldByColumn));
+
+    List<SourceRow> chunk = new ArrayList<>(chunkSize);
+    String text;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank()) continue;
+      String rowText = text;
+      chunk.add(new SourceRow(line, () -> csvFields(rowText, delimiter, fieldByColumn)));
+      job.rowsRead.incrementAndGet();
+      if (chunk.size() == chunkSize) {
+        submit.accept(chunk);
+        chunk = new ArrayList<>(chunkSize);
+      }
+    }
+    if (!chunk.isEmpty()) submit.accept(chunk);
+  }
+
+  private static Map<String, String> csvFields(String text, char delimiter, String[] fieldByColumn) {
+    List<String> values = splitCsv(text, delimiter);
+    Map<String, String> fields = new HashMap<>();
+    for (int i = 0; i < Math.min(values.size(), fieldByColumn.length); i++) {
+      if (fieldByColumn[i] != null) fields.put(fieldByColumn[i], values.get(i));
+    }
+    return fields;
+  }
+
+  /// Splits one CSV line; a quoted field may contain the delimiter and "" for a quote
+  private static List<String> splitCsv(String line, char delimiter) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          value.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == delimiter) {
+        values.add(value.toString());
+        value.setLength(0);
+      } else {
+        value.append(c);
+      }
+    }
+    values.add(value.toString());
+    return values;
+  }
+
+  /// Streams a JSON array of product objects without loading the whole array
+  private void readJson(InputStream in, ImportJob job, Consumer<List<SourceRow>> submit) throws IOException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IllegalArgumentException("Expected a JSON array of products");
+      }
+      List<SourceRow> chunk = new ArrayList<>(chunkSize);
+      long position = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        position++;
+        JsonNode node = objectMapper.readTree(parser);
+        job.rowsRead.incrementAndGet();
+        if (node == null || !node.isObject()) {
+          job.reject(position, "Not a JSON object");
+          continue;
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+          String field = FIELD_ALIASES.get(normalizeKey(entry.getKey()));
+          if (field != null && !entry.getValue().isNull()) fields.put(field, entry.getValue().asText());
+        }
+        chunk.add(new SourceRow(position, () -> fields));
+        if (chunk.size() == chunkSize) {
+          submit.accept(chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) submit.accept(chunk);
+    }
+  }
+
+  private static String normalizeKey(String key) {
+    return key.strip().toLowerCase(Locale.ROOT).replaceAll("[\\s_\\-]", "");
+  }
+
+  private static void requireCodeAndPrice(List<String> fields) {
+    if (!fields.contains("EAN") && !fields.contains("productNumber")) {
+      throw new IllegalArgumentException("The header has no EAN or product number column");
+    }
+    if (!fields.contains("name") || !fields.contains("price")) {
+      throw new IllegalArgumentException("The header needs a name and a price column");
+    }
+  }
+
+  /// Products were written with JDBC, so Hibernate's cached rows and product queries may be stale.
+  /// Job results too: a price change rewrites the parts totals of the jobs using the product.
+  private void evictProductCaches() {
+    searchCache.invalidate(SearchCache.PRODUCTS);
+    searchCache.invalidate(SearchCache.JOBS);
+    entityManagerFactory.getCache().evict(Product.class);
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+  }
+
+  private static String rootMessage(DataAccessException e) {
+    Throwable cause = e.getMostSpecificCause();
+    String message = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+    // PostgreSQL adds the failing statement's details on further lines
+    int newline = message.indexOf('\n');
+    return newline < 0 ? message : message.substring(0, newline);
+  }
+
+  private void remember(ImportJob job) {
+    synchronized (imports) {
+      imports.put(job.id, job);
+      // Forget the oldest finished imports
+      Iterator<ImportJob> oldest = imports.values().iterator();
+      while (imports.size() > KEEP_FINISHED && oldest.hasNext()) {
+        if (oldest.next().state != State.RUNNING) oldest.remove();
+      }
+    }
+  }
+
+  /// Live counters of one import, shared by the reader and the workers
+  private static final class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile long totalBytes;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final ConcurrentLinkedQueue<RowError> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger errorsKept = new AtomicInteger();
+    private volatile State state = State.RUNNING;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(String id, String fileName) {
+      this.id = id;
+      this.fileName = fileName;
+    }
+
+    void reject(long row, String reason) {
+      rowsFailed.incrementAndGet();
+      if (errorsKept.incrementAndGet() <= ProductImportStatus.MAX_ERRORS) errors.add(new RowError(row, reason));
+    }
+
+    void finish(State state, String message) {
+      this.message = message;
+      this.finishedAt = LocalDateTime.now();
+      this.state = state;
+    }
+
+    ProductImportStatus status() {
+      List<RowError> sorted = new ArrayList<>(errors);
+      sorted.sort(Comparator.comparingLong(RowError::row));
+      double progress = state != State.RUNNING || totalBytes == 0
+        ? 1.0
+        : Math.min(1.0, (double) bytesRead.get() / totalBytes);
+      return new ProductImportStatus(
+        id,
+        fileName,
+        state,
+        progress,
+        rowsRead.get(),
+        rowsImported.get(),
+        rowsFailed.get(),
+        sorted,
+        message,
+        startedAt,
+        finishedAt
+      );
+    }
+  }
+
+  /// Counts the bytes read from the file, for the progress figure
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private final AtomicLong count;
+
+    CountingInputStream(InputStream in, AtomicLong count) {
+      super(in);
+      this.count = count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) count.incrementAndGet();
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int n = super.read(buffer, offset, length);
+      if (n > 0) count.addAndGet(n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count.addAndGet(skipped);
+      return skipped;
+    }
+  }
+}
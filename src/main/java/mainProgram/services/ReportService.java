@@ -0,0 +1,115 @@
+package mainProgram.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import mainProgram.dto.PartsUsageReportRow;
+import mainProgram.dto.RevenueReportRow;
+import mainProgram.dto.StatusReportRow;
+import mainProgram.repository.ReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Management reports: revenue, labour, parts usage and status throughput per day, week or month.
+ *
+ * <p>Reports are read from the daily rollups (see {@link ReportRepository}), never
+ * from the jobs and job parts themselves, so a report over a year reads a few
+ * hundred rows however many jobs there are. Jobs are reported on the day they are
+ * booked for, archived jobs included.</p>
+ *
+ * <p>Job and part writes are journalled by the database; the journal is folded into
+ * the rollups every {@code app.reports.fold-millis}. Reports add the journal rows not
+ * folded yet, so they include the latest changes, and reading one never writes.</p>
+ *
+ * <p>The status report counts status transitions (a job created with or changed to a
+ * status) on the day they happened, not jobs on the day they are booked for.</p>
+ */
+@Service
+public class ReportService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+  /// How the rollup days are grouped. Weeks start on Monday.
+  public enum Period {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /// Parses a request parameter ("day", "week" or "month", any case)
+    public static Period parse(String value) {
+      try {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("period must be day, week or month");
+      }
+    }
+
+    String unit() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final ReportRepository reportRepository;
+
+  public ReportService(ReportRepository reportRepository) {
+    this.reportRepository = reportRepository;
+  }
+
+  @Scheduled(
+    fixedDelayString = "${app.reports.fold-millis:60000}",
+    initialDelayString = "${app.reports.fold-millis:60000}"
+  )
+  public void foldOnSchedule() {
+    try {
+      reportRepository.fold();
+    } catch (Exception e) {
+      logger.warn("Failed to fold the report journal: {}", e.getMessage());
+    }
+  }
+
+  /// Jobs, labour minutes and revenue per period, optionally for one status only
+  public List<RevenueReportRow> revenue(Period period, LocalDate from, LocalDate to, Short statusId) {
+    checkRange(from, to);
+    return reportRepository.revenue(period.unit(), from, to, statusId);
+  }
+
+  /// Parts used per period and product type
+  public List<PartsUsageReportRow> partsUsage(Period period, LocalDate from, LocalDate to) {
+    checkRange(from, to);
+    return reportRepository.partsUsage(period.unit(), from, to);
+  }
+
+  /// Status transitions per period and status
+  public List<StatusReportRow> statusThroughput(Period period, LocalDate from, LocalDate to) {
+    checkRange(from, to);
+    return reportRepository.statusThroughput(period.unit(), from, to);
+  }
+
+  /// Recomputes the rollups from the jobs and job parts (live and archived), for example after
+  /// changing data by hand. Job and part writes wait until it finishes.
+  @Transactional
+  public int rebuild() {
+    int rows = reportRepository.rebuild();
+    logger.info("Rebuilt the report rollups ({} rows)", rows);
+    return rows;
+  }
+
+  /// Recomputes the rollups of the days from `from` to `to` only, for example after changing the jobs
+  /// of a few days by hand
+  @Transactional
+  public int rebuild(LocalDate from, LocalDate to) {
+    checkRange(from, to);
+    int rows = reportRepository.rebuild(from, to);
+    logger.info("Rebuilt the report rollups from {} to {} ({} rows)", from, to, rows);
+    return rows;
+  }
+
+  private static void checkRange(LocalDate from, LocalDate to) {
+    if (from == null || to == null) throw new IllegalArgumentException("from and to are required");
+    if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+  }
+}
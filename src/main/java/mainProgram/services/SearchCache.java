@@ -0,0 +1,129 @@
+package mainProgram.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Result cache in front of the search services, one cache per search source.
+ *
+ * <p>Keys are the normalized query (trimmed, lowercased, whitespace collapsed),
+ * so "  Kæde " and "kæde" share an entry. Each source's cache is bounded both in
+ * size and in age. A write to an entity type clears that type's cache:
+ * {@link mainProgram.repository.SearchCacheInvalidationListener} calls
+ * {@link #invalidate(String)} after a Job or Product insert, update or delete
+ * commits. A Product write also clears the job cache, since jobs store parts
+ * totals computed from product prices. Each source also has a generation counter. A query that started
+ * before an invalidation does not store its (possibly stale) result.</p>
+ */
+@Component
+public class SearchCache {
+
+  /** Search source name of the job search (see {@link BaseSearchService#searchSource()}). */
+  public static final String JOBS = "job";
+
+  /** Search source name of the product search (see {@link BaseSearchService#searchSource()}). */
+  public static final String PRODUCTS = "repair";
+
+  private final Map<String, Region> regions = new ConcurrentHashMap<>();
+  private final long maxEntries;
+  private final Duration ttl;
+
+  /**
+   * @param maxEntries the maximum number of cached queries per source
+   * @param ttlSeconds how long a cached result may be served
+   */
+  public SearchCache(
+    @Value("${app.search.cache.max-entries:500}") long maxEntries,
+    @Value("${app.search.cache.ttl-seconds:300}") long ttlSeconds
+  ) {
+    this.maxEntries = maxEntries;
+    this.ttl = Duration.ofSeconds(ttlSeconds);
+  }
+
+  /// The cache of one source and its invalidation counter
+  private record Region(Cache<String, List<?>> cache, AtomicLong generation) {}
+
+  /**
+   * Returns the cached result for the query, or runs the search and caches its result.
+   *
+   * @param source    the search source
+   * @param mode      distinguishes query kinds on the same source, e.g. "search" or "autocomplete:10"
+   * @param query     the raw query text
+   * @param search    runs the search for the normalized query
+   * @param abandoned checked after the search; when true, the result is returned but not cached
+   * @return the result for the normalized query
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> get(
+    String source,
+    String mode,
+    String query,
+    Function<String, List<T>> search,
+    BooleanSupplier abandoned
+  ) {
+    String normalized = normalize(query);
+    Region region = region(source);
+    String key = mode + ':' + normalized;
+
+    List<?> cached = region.cache().getIfPresent(key);
+    if (cached != null) return (List<T>) cached;
+
+    long generation = region.generation().get();
+    List<T> result = List.copyOf(search.apply(normalized));
+    // Don't cache a result that may predate a write, or that was cut short
+    if (region.generation().get() == generation && !abandoned.getAsBoolean()) {
+      region.cache().put(key, result);
+    }
+    return result;
+  }
+
+  /// Drops every cached query of a source
+  public void invalidate(String source) {
+    Region region = region(source);
+    region.generation().incrementAndGet();
+    region.cache().invalidateAll();
+  }
+
+  /// Hit, miss and eviction counts per source
+  public Map<String, Map<String, Object>> stats() {
+    Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+    regions.forEach((source, region) -> {
+      CacheStats s = region.cache().stats();
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put("size", region.cache().estimatedSize());
+      values.put("hits", s.hitCount());
+      values.put("misses", s.missCount());
+      values.put("hitRate", s.hitRate());
+      values.put("evictions", s.evictionCount());
+      values.put("invalidations", region.generation().get());
+      stats.put(source, values);
+    });
+    return stats;
+  }
+
+  /// Normalized cache key and search text: trimmed, lowercase, single spaces
+  static String normalize(String query) {
+    return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  private Region region(String source) {
+    return regions.computeIfAbsent(source, (s) ->
+      new Region(
+        Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(),
+        new AtomicLong()
+      )
+    );
+  }
+}
@@ -0,0 +1,59 @@
+package mainProgram.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the newest in-flight autocomplete query per session and search source.
+ *
+ * <p>A search box fires one request per keystroke, so by the time the query for
+ * "ab" runs, the one for "a" is already useless. Each request takes a {@link Ticket};
+ * starting a new one for the same session and source supersedes the previous
+ * ticket, letting the older request stop between queries and skip serializing
+ * its result. Only requests still in flight are kept in the map.</p>
+ */
+@Component
+public class SearchRequestTracker {
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<String, Long> latest = new ConcurrentHashMap<>();
+
+  /**
+   * Registers a new query, superseding any earlier one with the same key.
+   *
+   * @param sessionId the HTTP session issuing the query
+   * @param source    the search source, e.g. "job" or "repair"
+   * @return the ticket; close it when the request is done
+   */
+  public Ticket begin(String sessionId, String source) {
+    String key = sessionId + ':' + source;
+    long id = sequence.incrementAndGet();
+    latest.put(key, id);
+    return new Ticket(key, id);
+  }
+
+  /** One registered query. */
+  public final class Ticket implements AutoCloseable {
+
+    private final String key;
+    private final long id;
+
+    private Ticket(String key, long id) {
+      this.key = key;
+      this.id = id;
+    }
+
+    /** @return true once a newer query with the same key has started */
+    public boolean isSuperseded() {
+      Long current = latest.get(key);
+      return current != null && current != id;
+    }
+
+    @Override
+    public void close() {
+      latest.remove(key, id);
+    }
+  }
+}
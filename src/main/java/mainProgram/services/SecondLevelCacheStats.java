@@ -0,0 +1,50 @@
+package mainProgram.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import mainProgram.config.SecondLevelCacheConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+/// Hit rates of the Hibernate second-level cache regions (see SecondLevelCacheConfig)
+@Service
+public class SecondLevelCacheStats {
+
+  private final Statistics statistics;
+  private final CacheManager cacheManager;
+
+  public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    this.cacheManager = hibernateCacheManager;
+  }
+
+  /// Per region: size, hits, misses, puts and hit rate since startup
+  public Map<String, Map<String, Object>> stats() {
+    Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+    for (String region : SecondLevelCacheConfig.REGIONS) {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put("size", size(region));
+      CacheRegionStatistics s = statistics.getCacheRegionStatistics(region);
+      if (s != null) {
+        long requests = s.getHitCount() + s.getMissCount();
+        values.put("hits", s.getHitCount());
+        values.put("misses", s.getMissCount());
+        values.put("puts", s.getPutCount());
+        values.put("hitRate", requests == 0 ? 0.0 : (double) s.getHitCount() / requests);
+      }
+      stats.put(region, values);
+    }
+    return stats;
+  }
+
+  /// Estimated number of entries, read from the Caffeine cache behind the JCache region
+  private long size(String region) {
+    Cache<Object, Object> cache = cacheManager.getCache(region);
+    return cache == null ? 0 : cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+  }
+}
@@ -0,0 +1,139 @@
+package mainProgram.services;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import mainProgram.dto.UnifiedSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Searches every {@link BaseSearchService} at once, for the navbar search.
+ *
+ * <p>Each source runs its bounded autocomplete query on its own virtual thread,
+ * so the response takes as long as the slowest source instead of the sum of all
+ * of them. All sources share one deadline: a source that has not answered by then
+ * is listed as timed out, and the others are still returned. New search services
+ * are picked up automatically, since all {@code BaseSearchService} beans are
+ * injected.</p>
+ *
+ * <p>Subtasks are never interrupted: interrupting a thread inside a JDBC call can
+ * break the pooled connection it is using. Instead each source runs in its own
+ * read-only transaction with {@code statement_timeout} set to the time left until
+ * the deadline, so the database cancels a query still running then and the
+ * connection goes back to the pool intact. Between queries, sources stop on their
+ * own once the deadline passes or the query is superseded.</p>
+ */
+@Service
+public class UnifiedSearchService {
+
+  private static final Logger logger = LoggerFactory.getLogger(UnifiedSearchService.class);
+
+  /** Longest per-source timeout a client may ask for. */
+  public static final long MAX_TIMEOUT_MILLIS = 5000;
+
+  private final List<BaseSearchService<?>> sources;
+  private final long defaultTimeoutMillis;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transaction;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  /**
+   * @param sources              every search service in the application
+   * @param defaultTimeoutMillis the per-source timeout used when the client does not ask for one
+   * @param jdbcTemplate         used to set each source's statement timeout
+   * @param transactionManager   runs each source in its own read-only transaction
+   */
+  public UnifiedSearchService(
+    List<BaseSearchService<?>> sources,
+    @Value("${app.search.unified.timeout-millis:800}") long defaultTimeoutMillis,
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager
+  ) {
+    this.sources = List.copyOf(sources);
+    this.defaultTimeoutMillis = defaultTimeoutMillis;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.transaction.setReadOnly(true);
+  }
+
+  /**
+   * Runs the query against all sources in parallel.
+   *
+   * @param query         the search text
+   * @param limit         the maximum number of matches per source
+   * @param timeoutMillis the per-source timeout, or {@code null} for the configured default
+   * @param superseded    reports when a newer query from the same session has arrived
+   * @return the matches per source, plus the sources that timed out or failed
+   */
+  public UnifiedSearchResult search(String query, int limit, Long timeoutMillis, BooleanSupplier superseded) {
+    long timeout = timeoutMillis == null ? defaultTimeoutMillis : Math.max(1, Math.min(timeoutMillis, MAX_TIMEOUT_MILLIS));
+    long deadline = System.nanoTime() + Duration.ofMillis(timeout).toNanos();
+    // Sources stop early once the deadline passes or the query is superseded
+    BooleanSupplier stop = () -> System.nanoTime() >= deadline || superseded.getAsBoolean();
+
+    Map<BaseSearchService<?>, Future<? extends List<?>>> tasks = new LinkedHashMap<>();
+    for (BaseSearchService<?> source : sources) {
+      tasks.put(source, executor.submit(() -> searchBefore(deadline, source, query, limit, stop)));
+    }
+
+    Map<String, List<?>> results = new LinkedHashMap<>();
+    List<String> timedOut = new ArrayList<>();
+    List<String> failed = new ArrayList<>();
+    try {
+      for (Map.Entry<BaseSearchService<?>, Future<? extends List<?>>> task : tasks.entrySet()) {
+        String name = task.getKey().searchSource();
+        try {
+          long remaining = Math.max(0, deadline - System.nanoTime());
+          results.put(name, task.getValue().get(remaining, TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+          timedOut.add(name);
+        } catch (ExecutionException e) {
+          // A source failing once the deadline has passed had its statement cancelled by the timeout
+          if (e.getCause() instanceof QueryTimeoutException || System.nanoTime() >= deadline) {
+            timedOut.add(name);
+          } else {
+            logger.warn("Search source '{}' failed for query '{}'", name, query, e.getCause());
+            failed.add(name);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // Whatever hasn't finished is abandoned along with this request; its statement timeout ends it
+      tasks.values().forEach((future) -> future.cancel(false));
+    }
+    return new UnifiedSearchResult(results, timedOut, failed);
+  }
+
+  /// One source's search, in a read-only transaction whose statements the database cancels at the deadline
+  private List<?> searchBefore(long deadline, BaseSearchService<?> source, String query, int limit, BooleanSupplier stop) {
+    return transaction.execute((status) -> {
+      long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+      jdbcTemplate.execute("SET LOCAL statement_timeout = " + remainingMillis);
+      return source.autocomplete(query, limit, stop);
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
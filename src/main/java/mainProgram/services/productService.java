@@ -1,17 +1,27 @@
 package mainProgram.services;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import mainProgram.repository.ProductRepository;
 import mainProgram.table.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class productService implements BaseSearchService<Product> {
 
   private final ProductRepository productRepository;
+  private final SearchCache searchCache;
 
-  public productService(ProductRepository productRepository) {
+  public productService(ProductRepository productRepository, SearchCache searchCache) {
     this.productRepository = productRepository;
+    this.searchCache = searchCache;
+  }
+
+  @Override
+  public String searchSource() {
+    return SearchCache.PRODUCTS;
   }
 
   @Override
@@ -19,7 +29,39 @@ public class productService implements BaseSearchService<Product> {
     if (keyword == null || keyword.isBlank()) {
       return List.of();
     }
-    // Multi-field search: productNumber, name, EAN, type
-    return productRepository.search(keyword);
+    // Multi-field search: productNumber, name, EAN, type (cached per normalized keyword)
+    return searchCache.get(SearchCache.PRODUCTS, "search", keyword, productRepository::search, () -> false);
+  }
+
+  @Override
+  public List<Product> autocomplete(String prefix, int limit, BooleanSupplier superseded) {
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    return searchCache.get(
+      SearchCache.PRODUCTS,
+      "autocomplete:" + limit,
+      prefix,
+      (keyword) -> findAutocompleteMatches(keyword, limit, superseded),
+      superseded
+    );
+  }
+
+  private List<Product> findAutocompleteMatches(String keyword, int limit, BooleanSupplier superseded) {
+    // Prefix matches first; the substring pass only runs if they don't fill the limit
+    List<Product> results = new ArrayList<>(productRepository.autocompletePrefix(keyword, Limit.of(limit)));
+    if (results.size() >= limit || superseded.getAsBoolean()) {
+      return results;
+    }
+    // IDs start at 1, so 0 stands in for "nothing to exclude" (an empty NOT IN list is not valid SQL)
+    List<Integer> found = results.stream().map(Product::getId).toList();
+    results.addAll(
+      productRepository.autocompleteContains(
+        keyword,
+        found.isEmpty() ? List.of(0) : found,
+        Limit.of(limit - results.size())
+      )
+    );
+    return results;
   }
 }
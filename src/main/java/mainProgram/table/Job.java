@@ -1,7 +1,12 @@
 package mainProgram.table;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import mainProgram.repository.JobSearchIndexListener;
+import mainProgram.repository.SearchCacheInvalidationListener;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 /**
  * Entity class representing a job in the system.
@@ -19,10 +24,20 @@ import java.time.LocalDateTime;
  *   <li>Current status (through JobStatus relationship)</li>
  * </ul>
  *
+ * <p>The composite index on {@code (date, status_id)} backs the date-windowed
+ * queries used by the calendar and job list.</p>
+ *
  * @see JobStatus
  */
 @Entity
-@Table(name = "jobs")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@EntityListeners({ JobSearchIndexListener.class, SearchCacheInvalidationListener.class })
+@Table(
+  name = "jobs",
+  indexes = {
+    @Index(name = "idx_jobs_date_status", columnList = "date, status_id"),
+  }
+)
 public class Job {
 
   /**
@@ -63,7 +78,7 @@ public class Job {
   /**
    * Rate charged per minute of work performed.
    *
-   * <p>Total job cost can be calculated as: work_time_minutes × price_per_minute</p>
+   * <p>The labour cost is work_time_minutes × price_per_minute (see {@link #getLabour_total()}).</p>
    */
   private Double price_per_minute;
 
@@ -77,11 +92,52 @@ public class Job {
    *
    * <p>This establishes a many-to-one relationship with the JobStatus entity.
    * Multiple jobs can share the same status.</p>
+   *
+   * <p>Lazy, and never loaded from the database in practice: its ID is known
+   * without a query, and the name is read from the in-memory JobStatusRegistry
+   * when the job is serialized or rendered.</p>
    */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "status_id", nullable = false)
   private JobStatus status;
 
+  /**
+   * Date and time of the last insert or update of this job.
+   *
+   * <p>Set by Hibernate on every write. Closed jobs unchanged for long enough are
+   * archived. (The incremental change feed uses the writing transaction instead,
+   * see {@link mainProgram.initializer.ChangeFeedSchemaInitializer}.)</p>
+   */
+  @UpdateTimestamp
+  private LocalDateTime updated_at;
+
+  /**
+   * Optimistic lock version, incremented on every write.
+   *
+   * <p>Hibernate checks and bumps it on every entity update. The single-statement
+   * PATCH endpoints do the same in SQL ({@code WHERE id = ? AND version = ?}). A
+   * client that sends a version someone else has already moved past gets a
+   * conflict instead of overwriting that change. Writes that bypass Hibernate
+   * must increment it too.</p>
+   */
+  @Version
+  @ColumnDefault("0") // Existing rows start at version 0 when the column is added
+  @Column(nullable = false)
+  private Long version;
+
+  /**
+   * Sum of quantity × product price over the parts of this job.
+   *
+   * <p>Kept up to date by the database (see JobTotalsSchemaInitializer): every
+   * change to a job part, and every product price change, adds the difference to
+   * this column. Hibernate only reads it, so saving a job never overwrites a part
+   * that was added meanwhile. The database also stores {@code labour_total} and
+   * {@code grand_total} as generated columns, for SQL that sorts or sums on them.</p>
+   */
+  @ColumnDefault("0")
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Double parts_total;
+
   // Getters and Setters
 
   /**
@@ -245,4 +301,61 @@ public class Job {
   public void setStatus(JobStatus status) {
     this.status = status;
   }
+
+  /**
+   * Gets the date and time of the last change to the job.
+   *
+   * @return the last-modified timestamp
+   */
+  public LocalDateTime getUpdated_at() {
+    return updated_at;
+  }
+
+  /**
+   * Gets the optimistic lock version of the job.
+   *
+   * @return the version, or null for a job that has not been saved yet
+   */
+  public Long getVersion() {
+    return version;
+  }
+
+  /**
+   * Sets the optimistic lock version of the job.
+   *
+   * @param version the version the client last saw
+   */
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  /**
+   * Gets the labour cost of the job: work_time_minutes × price_per_minute.
+   *
+   * <p>Computed from the fields, so it is current even before the job is saved;
+   * the database stores the same value in {@code labour_total}.</p>
+   *
+   * @return the labour cost, 0 if the time or the rate is missing
+   */
+  public double getLabour_total() {
+    return (work_time_minutes != null ? work_time_minutes : 0) * (price_per_minute != null ? price_per_minute : 0);
+  }
+
+  /**
+   * Gets the total price of the parts used on the job, as of when it was loaded.
+   *
+   * @return the parts total, 0 for a job without parts
+   */
+  public double getParts_total() {
+    return parts_total != null ? parts_total : 0;
+  }
+
+  /**
+   * Gets the total price of the job: labour plus parts, before VAT.
+   *
+   * @return the grand total; the database stores the same value in {@code grand_total}
+   */
+  public double getGrand_total() {
+    return getLabour_total() + getParts_total();
+  }
 }
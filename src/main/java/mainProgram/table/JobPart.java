@@ -7,22 +7,40 @@ import jakarta.persistence.*;
  * Join table entity representing the association between Jobs and Products.
  *
  * <p>Each record indicates a Product used in a Job, including the quantity.</p>
+ *
+ * <p>Both references are lazy. Queries that need the job or product fetch them
+ * explicitly, with an entity graph or {@code JOIN FETCH} (see JobPartRepository),
+ * so listing parts never issues one extra select per row.</p>
+ *
+ * <p>IDs come from a sequence instead of an identity column. Hibernate then knows
+ * the IDs before inserting, so it can send many new parts to the database as one
+ * JDBC batch. The sequence hands out one ID per call: the part upsert in
+ * JobPartRepositoryImpl takes an ID for every line it writes, also when it only
+ * adds to an existing line, so reserving blocks would waste a block per line.</p>
  */
 @Entity
-@Table(name = "job_part_jointable")
+@Table(
+  name = "job_part_jointable",
+  // One line per product per job; adding the same product again increases the quantity
+  uniqueConstraints = @UniqueConstraint(name = "uk_job_part_job_product", columnNames = { "job_id", "product_id" })
+)
 public class JobPart {
 
+  /** Number of IDs reserved per sequence call; also the sequence's increment. */
+  public static final int ID_ALLOCATION_SIZE = 1;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_part_seq")
+  @SequenceGenerator(name = "job_part_seq", sequenceName = "job_part_jointable_seq", allocationSize = ID_ALLOCATION_SIZE)
   private int id;
 
   // Reference to the Job
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "job_id", nullable = false)
   private Job job;
 
   // Reference to the Product
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "product_id", nullable = false)
   private Product product;
 
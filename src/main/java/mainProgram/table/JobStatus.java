@@ -1,9 +1,12 @@
 package mainProgram.table;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import mainProgram.repository.JobStatusRegistryListener;
 
 /**
  * Entity class representing the status of a job in the system.
@@ -17,12 +20,15 @@ import jakarta.persistence.Table;
  *   <li>Uses manually assigned IDs (not auto-generated) for predictable status codes</li>
  *   <li>Status names are unique across the system</li>
  *   <li>Acts as a reference table for Job entities</li>
+ *   <li>Held in memory by JobStatusRegistry; changes made through JPA update it on commit</li>
  * </ul>
  *
  * @see Job
  */
 @Entity
 @Table(name = "job_status")
+@EntityListeners(JobStatusRegistryListener.class)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" }) // Serializable as a lazy proxy
 public class JobStatus {
 
   /**
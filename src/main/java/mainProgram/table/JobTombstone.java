@@ -0,0 +1,62 @@
+package mainProgram.table;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class recording that a job has been deleted.
+ *
+ * <p>Deleted jobs leave no row behind in the "jobs" table, so the change feed
+ * could not tell clients to drop them. A tombstone is written in the same
+ * transaction as the delete, and is returned by {@code /api/jobs/changes} to
+ * clients whose cursor is older than the deletion.</p>
+ *
+ * @see Job
+ */
+@Entity
+@Table(name = "job_tombstones", indexes = { @Index(name = "idx_job_tombstones_deleted_at", columnList = "deleted_at") })
+public class JobTombstone {
+
+  /**
+   * ID of the deleted job.
+   */
+  @Id
+  private Integer job_id;
+
+  /**
+   * Date and time when the job was deleted.
+   */
+  @Column(nullable = false)
+  private LocalDateTime deleted_at;
+
+  public JobTombstone() {}
+
+  /**
+   * Creates a tombstone for the given job ID.
+   *
+   * @param job_id     the ID of the deleted job
+   * @param deleted_at the time of deletion
+   */
+  public JobTombstone(Integer job_id, LocalDateTime deleted_at) {
+    this.job_id = job_id;
+    this.deleted_at = deleted_at;
+  }
+
+  /**
+   * Gets the ID of the deleted job.
+   *
+   * @return the job ID
+   */
+  public Integer getJob_id() {
+    return job_id;
+  }
+
+  /**
+   * Gets the date and time when the job was deleted.
+   *
+   * @return the deletion timestamp
+   */
+  public LocalDateTime getDeleted_at() {
+    return deleted_at;
+  }
+}
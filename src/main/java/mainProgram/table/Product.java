@@ -2,14 +2,30 @@ package mainProgram.table; // Project Organization
 
 /* --- Imports --- */
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import mainProgram.config.SecondLevelCacheConfig;
+import mainProgram.repository.ProductCatalogueListener;
+import mainProgram.repository.SearchCacheInvalidationListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /* --- Product Class --- */
 // Represents a product in the system
 // This entity is mapped to the "products" table in the database.
 // Each Product can be linked to multiple JobParts (via one-to-many relationship).
+// EAN and productNumber are unique, so a barcode scan resolves to exactly one product.
+// Products change rarely, so they are kept in the second-level cache (region "products").
+// Deleting a product archives it (archivedAt), so the jobs that used it keep their parts.
 @Entity // Marks this class as a JPA entity (maps to a database table)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PRODUCTS)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" }) // Serializable as a lazy proxy (JobPart.product)
+// Keep the in-memory lookup catalogue in sync, and drop cached product searches on every change
+@EntityListeners({ ProductCatalogueListener.class, SearchCacheInvalidationListener.class })
+// The unique EAN and productNumber indexes are created by ProductSchemaInitializer
 @Table(name = "products") // Explicitly sets the table name in the database
 public class Product {
 
@@ -32,6 +48,12 @@ public class Product {
 
   private Double price; // Maps to: price
 
+  // Set when the product is deleted: it disappears from lists, searches and barcode lookups,
+  // but stays in the table, so job parts (also archived ones) still point at it.
+  // Its EAN and product number are free again: a product created or imported with them is a new product.
+  @Column(name = "archived_at")
+  private LocalDateTime archivedAt; // Maps to: archived_at (null = in use)
+
   // One-to-Many Relationship: One Product can be associated with many JobParts.
   /**
    * @mappedBy "product"
@@ -50,7 +72,7 @@ public class Product {
    * exist without a parent Product.
    **/
 
-  // #TODO WE NEED MANY TO MANY AND THE PRODUCT WHEN DELETED SHOULD BE ARCHIVED NOT DELETE
+  // Products are archived instead of deleted (see archivedAt), so this is never needed for deletes
   // @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
   // private List<JobPart> jobParts = new ArrayList<>();
 
@@ -93,6 +115,14 @@ public class Product {
     return price;
   }
 
+  public LocalDateTime getArchivedAt() {
+    return archivedAt;
+  }
+
+  public boolean isArchived() {
+    return archivedAt != null;
+  }
+
   // Setters
   public void setProductNumber(String productNumber) {
     this.productNumber = productNumber;
@@ -113,4 +143,21 @@ public class Product {
   public void setPrice(Double price) {
     this.price = price;
   }
+
+  public void setArchivedAt(LocalDateTime archivedAt) {
+    this.archivedAt = archivedAt;
+  }
+
+  // Blank codes are stored as null: a form field left empty sends "", and only one product
+  // could have "" under the unique indexes, while any number of products may have no code.
+  @PrePersist
+  @PreUpdate
+  void normalizeCodes() {
+    productNumber = blankToNull(productNumber);
+    EAN = blankToNull(EAN);
+  }
+
+  private static String blankToNull(String code) {
+    return code == null || code.isBlank() ? null : code.trim();
+  }
 }
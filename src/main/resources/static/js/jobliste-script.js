@@ -1,7 +1,4 @@
 document.addEventListener('DOMContentLoaded', function () {
-  // Consts for active or completed filter buttons
-  const completedBtn = document.getElementById('completed-btn');
-  const activeBtn = document.getElementById('active-btn');
   const tableBody = document.getElementById('table-body');
 
   // Make each <tr data-href> row clickable and navigate to the URL in data-href
@@ -20,48 +17,41 @@ document.addEventListener('DOMContentLoaded', function () {
     if (window.openCreateJobModal) window.openCreateJobModal();
   });
 
-  // Filter for sorting active and completed jobs
-  // Normalize the job statuses to string and clean
-  function normalizeStatus(s) {
-    return (s || '').toString().trim().toLowerCase().replace(/[_-]/g, ' ');
-  }
-
-  // Function for checking whether the status is "afhentet" or not
-  // and returns string if it is "afhentet"
-  function isPickedUp(status) {
-    const st = normalizeStatus(status);
-    return /picked\s*up/.test(st) || st === 'afhentet' || st === 'pickedup';
-  }
-
-  function getRowStatus(row) {
-    if (row.dataset && row.dataset.status) return normalizeStatus(row.dataset.status);
-    const el = row.querySelector('.job-status');
-    return el ? normalizeStatus(el.textContent) : ';';
-  }
-
-  // Function for checking whether the status is "afhentet"
-  // and then hiding or showing job depending on status
-  function applyFilter(filter) {
-    if (!tableBody) return;
-    const rows = tableBody.querySelectorAll('tr');
-    rows.forEach((row) => {
-      const status = getRowStatus(row);
-      const show = filter === 'active' ? !isPickedUp(status) : filter === 'completed' ? isPickedUp(status) : true;
-      row.classList.toggle('d-none', !show);
-    });
-    activeBtn?.classList.toggle('active', filter === 'active');
-    completedBtn?.classList.toggle('active', filter === 'completed');
-  }
-  applyFilter('active');
-
-  // Listens for filter buttons
-  activeBtn?.addEventListener('click', () => applyFilter('active'));
-  completedBtn?.addEventListener('click', () => applyFilter('completed'));
+  // The active/completed tabs are links; the server filters and pages the list.
+  // Remember which rows belong to the current filter, so live updates can respect it.
+  const currentFilter = document.querySelector('.tab-btn.active')?.id === 'completed-btn' ? 'completed' : 'active';
+  const isPickedUp = (job) => (job.status?.name || '') === 'pickedUp';
+  const matchesFilter = (job) => (currentFilter === 'completed' ? isPickedUp(job) : !isPickedUp(job));
+
+  // Keep the server-rendered rows so clearing the search restores them without reloading every job
+  if (tableBody) initialRows = Array.from(tableBody.children);
+
+  // Live updates: patch the single affected row instead of reloading the list
+  const jobStream = new EventSource('/api/jobs/stream');
+  const findRow = (id) => tableBody?.querySelector(`tr[data-href="/jobliste/${id}"]`);
+  const upsertRow = (e) => {
+    const job = JSON.parse(e.data);
+    const existing = findRow(job.id);
+    // A job that no longer matches the tab (e.g. just picked up) leaves the list
+    if (!matchesFilter(job)) {
+      existing?.remove();
+      return;
+    }
+    const newRow = buildJobRow(job);
+    if (existing) existing.replaceWith(newRow);
+    else tableBody?.appendChild(newRow);
+    formatStatusBadges(newRow);
+  };
+  jobStream.addEventListener('created', upsertRow);
+  jobStream.addEventListener('updated', upsertRow);
+  jobStream.addEventListener('deleted', (e) => findRow(JSON.parse(e.data).id)?.remove());
 });
 
 // Continuous search as you type (debounced)
 const searchInput = document.getElementById('searchparams');
 let searchTimeout = null;
+// Server-rendered page of rows, restored when the search is cleared
+let initialRows = [];
 
 searchInput.addEventListener('input', () => {
   clearTimeout(searchTimeout);
@@ -72,13 +62,15 @@ async function runSearch() {
   let matches;
   const searchParam = searchInput.value.trim();
 
+  const tableBody = document.getElementById('table-body');
+
   if (!searchParam) {
-    matches = await fetchAllRepairs();
-  } else {
-    matches = await fetchSearchMatches(searchParam);
+    // Back to the filtered page the server rendered
+    tableBody.replaceChildren(...initialRows);
+    return;
   }
+  matches = await fetchSearchMatches(searchParam);
 
-  const tableBody = document.getElementById('table-body');
   tableBody.innerHTML = '';
 
   if (!matches || !matches.length) {
@@ -89,45 +81,47 @@ async function runSearch() {
     return;
   }
 
-  matches.forEach((match) => {
-    const newRow = document.createElement('tr');
-    newRow.style.cursor = 'pointer';
-    newRow.dataset.href = `/jobliste/${match.id}`;
-    newRow.addEventListener('click', () => (window.location.href = newRow.dataset.href));
-
-    newRow.innerHTML = `
-      <td class="w-5">
-        <div>
-          <p class="fw-bolder mb-1">${match.id}</p>
-        </div>
-      </td>
-      <td class="w-15">
-        <div class="d-flex flex-column gap-1">
-          <p class="fw-bolder mb-1">${match.title || ''}</p>
-          <p class="mb-0">${match.customer_name || ''}</p>
-          <p>${match.customer_phone || ''}</p>
-        </div>
-      </td>
-      <td class="w-15">
-        <div>
-          <span class="job-status">${match.status?.name || ''}</span>
-        </div>
-      </td>
-      <td class="w-30">
-        <div class="w-75">
-          <p>${match.job_description || ''}</p>
-        </div>
-      </td>
-      <td class="w-30">${formatDate(match.date || '')}</td>
-    `;
-
-    tableBody.appendChild(newRow);
-  });
+  matches.forEach((match) => tableBody.appendChild(buildJobRow(match)));
 
   // Reapply badge formatting
   formatStatusBadges();
 }
 
+// Builds a clickable table row for a job
+function buildJobRow(match) {
+  const newRow = document.createElement('tr');
+  newRow.style.cursor = 'pointer';
+  newRow.dataset.href = `/jobliste/${match.id}`;
+  newRow.addEventListener('click', () => (window.location.href = newRow.dataset.href));
+
+  newRow.innerHTML = `
+    <td class="w-5">
+      <div>
+        <p class="fw-bolder mb-1">${match.id}</p>
+      </div>
+    </td>
+    <td class="w-15">
+      <div class="d-flex flex-column gap-1">
+        <p class="fw-bolder mb-1">${match.title || ''}</p>
+        <p class="mb-0">${match.customer_name || ''}</p>
+        <p>${match.customer_phone || ''}</p>
+      </div>
+    </td>
+    <td class="w-15">
+      <div>
+        <span class="job-status">${match.status?.name || ''}</span>
+      </div>
+    </td>
+    <td class="w-30">
+      <div class="w-75">
+        <p>${match.job_description || ''}</p>
+      </div>
+    </td>
+    <td class="w-30">${formatDate(match.date || '')}</td>
+  `;
+  return newRow;
+}
+
 // Function to format the date
 function formatDate(dateString) {
   if (!dateString) return '';
@@ -141,22 +135,6 @@ function formatDate(dateString) {
   });
 }
 
-async function fetchAllRepairs() {
-  try {
-    // Send PUT request to update the job entry
-    const r1 = await fetch('/api/jobs', {
-      method: 'GET',
-      headers: { 'Content-Type': 'application/json' },
-    });
-
-    // Get the matches from the response and update the page to show matches
-    return await r1.json();
-  } catch (err) {
-    // todo: add some error handling
-    console.log(err);
-  }
-}
-
 async function fetchSearchMatches(searchParam) {
   try {
     // Send PUT request to update the job entry
@@ -173,8 +151,8 @@ async function fetchSearchMatches(searchParam) {
   }
 }
 
-function formatStatusBadges() {
-  document.querySelectorAll('.job-status').forEach((el) => {
+function formatStatusBadges(root = document) {
+  root.querySelectorAll('.job-status').forEach((el) => {
     const raw = el.textContent.trim();
     // statusToColors returns an object { borderColor, backgroundColor, textColor, cssClass }
     const colors = typeof statusToColors === 'function' ? statusToColors(raw) : {};
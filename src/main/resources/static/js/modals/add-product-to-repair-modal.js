@@ -36,6 +36,8 @@ let modalProducts = [];
     // Get search results using the search Controller API
     let searchParams = document.getElementById('searchBar').value;
     let matches = await fetchSearchMatches(searchParams);
+    // A newer keystroke has already replaced this query
+    if (matches === STALE_SEARCH) return;
 
     // Show search results as a dropdown below the search bar
     searchResults.innerHTML = '';
@@ -170,18 +172,31 @@ function renderProductTable() {
   });
 }
 
-// Seach in product using the productController API endpoint
+// Max number of products shown in the search dropdown
+const SEARCH_LIMIT = 10;
+// Returned by fetchSearchMatches when the query was replaced by a newer one
+const STALE_SEARCH = Symbol('stale-search');
+// The in-flight search request, aborted when the user types again
+let searchController = null;
+
+// Seach in product using the productController API endpoint (autocomplete mode: top matches only)
 async function fetchSearchMatches(searchParam) {
+  searchController?.abort();
+  const controller = (searchController = new AbortController());
   try {
-    // Send PUT request to update the job entry
-    const r1 = await fetch('/api/search/repair?q=' + searchParam, {
+    const r1 = await fetch('/api/search/repair?limit=' + SEARCH_LIMIT + '&q=' + encodeURIComponent(searchParam), {
       method: 'GET',
       headers: { 'Content-Type': 'application/json' },
+      signal: controller.signal,
     });
 
+    // 204: the server dropped this query because a newer one from this session arrived first
+    if (r1.status === 204) return STALE_SEARCH;
+
     // Get the matches from the response and update the page to show matches
     return await r1.json();
   } catch (err) {
+    if (err.name === 'AbortError') return STALE_SEARCH;
     // todo: add some error handleing
     console.log(err);
   }
@@ -18,9 +18,9 @@ document.addEventListener('DOMContentLoaded', function () {
     // Collect all form input values into a product data object
     // Each property corresponds to an attribute in the database Product entity
     const productData = {
-      productNumber: document.getElementById('varenummer-text').value, // Product Number
+      productNumber: document.getElementById('varenummer-text').value.trim() || null, // Product Number (optional)
       name: document.getElementById('navn-text').value, // Product Name
-      EAN: document.getElementById('EAN-text').value, // Product EAN
+      EAN: document.getElementById('EAN-text').value.trim() || null, // Product EAN (optional)
       type: document.getElementById('type-text').value, // Product Category/Type
       price: document.getElementById('pris-tal').value, // Product Price
     };
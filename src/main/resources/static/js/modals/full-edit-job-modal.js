@@ -32,6 +32,8 @@
       price_per_minute: parseFloat(document.getElementById('full_price_per_minute').value || '0'),
       date: toIsoLocal(document.getElementById('full_date').value),
       status: { id: parseInt(document.getElementById('full_status_id').value, 10) },
+      // Version the form was loaded at; the server rejects the save if someone changed the job since
+      version: modalEl.dataset.version ? Number(modalEl.dataset.version) : null,
     };
 
     try {
@@ -42,6 +44,10 @@
         body: JSON.stringify(Payload),
       });
 
+      if (r1.status === 409) {
+        // "The job was changed by someone else in the meantime. Reload and try again."
+        throw new Error('Jobbet er blevet ændret af en anden i mellemtiden. Genindlæs og prøv igen.');
+      }
       if (!r1.ok) throw new Error('Kunne ikke opdatere jobbet'); // "Could not update the job"
 
       // Close modal and reload page after successful update
@@ -61,6 +67,7 @@
   window.openFullEditJobModal = function (job) {
     // Populate hidden and input fields with job data
     document.getElementById('full_jobId').value = job.id;
+    modalEl.dataset.version = job.version ?? '';
     document.getElementById('full_title').value = job.title || '';
     document.getElementById('full_customer_name').value = job.customer_name || '';
     document.getElementById('full_customer_phone').value = job.customer_phone || '';
@@ -1,40 +1,29 @@
-// Live search for products table (client-side filtering)
+// Live search for products table (server-side filtering)
 // Matches across: Varenr (productNumber), Navn (name), EAN, Type
+// The search form is submitted as a GET request, so the server only renders the matching page of products.
 
 (function () {
-  const DEBOUNCE_MS = 250;
+  const DEBOUNCE_MS = 400;
   let timer = null;
 
   document.addEventListener('DOMContentLoaded', () => {
     const input = document.getElementById('product-search-input');
-    const btn = document.getElementById('product-search-btn');
-    const tbody = document.getElementById('products-table-body');
-    if (!input || !tbody) return;
+    const form = document.getElementById('product-search-form');
+    if (!input || !form) return;
 
-    const filterNow = () => {
-      const q = (input.value || '').trim().toLowerCase();
-      const rows = tbody.querySelectorAll('tr');
-      if (!q) {
-        rows.forEach((row) => row.classList.remove('d-none'));
-        return;
-      }
+    // Keep the cursor at the end of the search text after the page reloads
+    if (input.value) {
+      input.focus();
+      input.setSelectionRange(input.value.length, input.value.length);
+    }
 
-      rows.forEach((row) => {
-        const pn = row.querySelector('td[data-field="productNumber"]')?.textContent?.toLowerCase() || '';
-        const name = row.querySelector('td[data-field="name"]')?.textContent?.toLowerCase() || '';
-        const ean = row.querySelector('td[data-field="EAN"]')?.textContent?.toLowerCase() || '';
-        const type = row.querySelector('td[data-field="type"]')?.textContent?.toLowerCase() || '';
-        const matches = pn.includes(q) || name.includes(q) || ean.includes(q) || type.includes(q);
-        row.classList.toggle('d-none', !matches);
-      });
-    };
+    const submitNow = () => form.requestSubmit();
 
-    const debouncedFilter = () => {
+    const debouncedSubmit = () => {
       clearTimeout(timer);
-      timer = setTimeout(filterNow, DEBOUNCE_MS);
+      timer = setTimeout(submitNow, DEBOUNCE_MS);
     };
 
-    input.addEventListener('input', debouncedFilter);
-    btn?.addEventListener('click', filterNow);
+    input.addEventListener('input', debouncedSubmit);
   });
 })();
@@ -0,0 +1,180 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mainProgram.dto.JobStatusPatch;
+import mainProgram.dto.ProductStock;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.repository.JobRepository;
+import mainProgram.services.InventoryService;
+import mainProgram.services.JobService;
+import mainProgram.table.Job;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Stock reservations: counted in memory as parts are added to and removed from
+ * repairs, written in batches, and settled when a job is picked up.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixture.class)
+class InventoryTests {
+
+  private static final int WORKERS = 4;
+  private static final int ADDS_PER_WORKER = 10;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private InventoryService inventoryService;
+
+  @Autowired
+  private JobService jobService;
+
+  @Autowired
+  private JobRepository jobRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private Product screw;
+  private final List<Job> jobs = new ArrayList<>();
+
+  @BeforeEach
+  void createFixture() {
+    screw = fixture.product("1", "Screw", "small parts", 1.0);
+    for (int i = 0; i < WORKERS; i++) {
+      jobs.add(fixture.job(String.valueOf(i), LocalDateTime.now(), (short) 3));
+    }
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void partsAreReservedReleasedAndUsedAtPickup() throws Exception {
+    mvc
+      .perform(put("/api/inventory/{id}", screw.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"quantity\": 30}"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.onHand").value(30))
+      .andExpect(jsonPath("$.available").value(30));
+
+    // Concurrent adds, each worker to its own repair
+    ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (Job job : jobs) {
+        results.add(
+          executor.submit(() -> {
+            for (int i = 0; i < ADDS_PER_WORKER; i++) {
+              jobService.addProductToRepair(job.getId(), screw.getId(), 1);
+            }
+          })
+        );
+      }
+      for (Future<?> result : results) result.get();
+    } finally {
+      executor.shutdown();
+    }
+    int added = WORKERS * ADDS_PER_WORKER;
+    assertStock(30, added);
+    inventoryService.flush();
+    assertEquals(added, jdbcTemplate.queryForObject("SELECT reserved FROM product_stock WHERE product_id = ?", Integer.class, screw.getId()));
+
+    // Removing a part releases it; a delivery adds to the shelf
+    mvc.perform(delete("/api/repairs/{job}/products/{product}", jobs.get(0).getId(), screw.getId())).andExpect(status().isNoContent());
+    mvc.perform(delete("/api/repairs/{job}/products/{product}", jobs.get(0).getId(), screw.getId())).andExpect(status().isNotFound());
+    mvc
+      .perform(post("/api/inventory/{id}/delivery", screw.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"quantity\": 5}"))
+      .andExpect(jsonPath("$.onHand").value(35))
+      .andExpect(jsonPath("$.reserved").value(added - ADDS_PER_WORKER));
+
+    // Picking a job up takes its parts off the shelf, also when they are not written yet
+    Job pickedUp = jobs.get(1);
+    jobService.addProductToRepair(pickedUp.getId(), screw.getId(), 2);
+    long version = jobRepository.findById(pickedUp.getId()).orElseThrow().getVersion();
+    jobService.changeJobStatus(pickedUp.getId(), new JobStatusPatch((short) 6, version));
+    assertStock(35 - ADDS_PER_WORKER - 2, added - 2 * ADDS_PER_WORKER);
+
+    // Parts added to a picked-up job are used at once; deleting the job doesn't put any back
+    jobService.addProductToRepair(pickedUp.getId(), screw.getId(), 1);
+    assertStock(35 - ADDS_PER_WORKER - 3, added - 2 * ADDS_PER_WORKER);
+    jobService.deleteJob(pickedUp.getId());
+    assertStock(35 - ADDS_PER_WORKER - 3, added - 2 * ADDS_PER_WORKER);
+
+    mvc
+      .perform(get("/api/inventory/low-stock").param("below", "10"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[?(@.productId == %d)].available", screw.getId()).value(35 - ADDS_PER_WORKER - 3 - (added - 2 * ADDS_PER_WORKER)));
+  }
+
+  @Test
+  void invalidUpdatesAreRejected() throws Exception {
+    mvc
+      .perform(put("/api/inventory/{id}", screw.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"quantity\": -1}"))
+      .andExpect(status().isBadRequest());
+    mvc
+      .perform(post("/api/inventory/{id}/delivery", 0).contentType(MediaType.APPLICATION_JSON).content("{\"quantity\": 1}"))
+      .andExpect(status().isNotFound());
+    mvc.perform(get("/api/inventory/{id}", 0)).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void partQuantitiesBelowOneAreRejected() throws Exception {
+    Job job = jobs.get(0);
+    for (int quantity : new int[] { 0, -5 }) {
+      String single = "[{\"repairId\": %d, \"productId\": %d, \"quantity\": %d}]".formatted(job.getId(), screw.getId(), quantity);
+      mvc
+        .perform(post("/api/repairs/addProduct").contentType(MediaType.APPLICATION_JSON).content(single))
+        .andExpect(status().isBadRequest());
+      assertThrows(IllegalArgumentException.class, () -> jobService.addProductToRepair(job.getId(), screw.getId(), quantity));
+    }
+    // One bad line rejects the whole request, also when merging would make the total positive
+    String bulk = """
+      [{"repairId": %1$d, "productId": %2$d, "quantity": 3}, {"repairId": %1$d, "productId": %2$d, "quantity": -1}]
+      """.formatted(job.getId(), screw.getId());
+    mvc
+      .perform(post("/api/repairs/addProduct").contentType(MediaType.APPLICATION_JSON).content(bulk))
+      .andExpect(status().isBadRequest());
+
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_part_jointable WHERE job_id = ?", Integer.class, job.getId()));
+    assertEquals(0, inventoryService.getStock(screw.getId()).map(ProductStock::reserved).orElse(0));
+  }
+
+  private void assertStock(int onHand, int reserved) {
+    ProductStock stock = inventoryService.getStock(screw.getId()).orElseThrow();
+    assertEquals(onHand, stock.onHand(), "on hand");
+    assertEquals(reserved, stock.reserved(), "reserved");
+    assertTrue(stock.available() == onHand - reserved);
+  }
+}
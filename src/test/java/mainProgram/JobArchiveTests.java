@@ -0,0 +1,180 @@
+package mainProgram;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import mainProgram.repository.JobPartRepository;
+import mainProgram.repository.JobRepository;
+import mainProgram.repository.ProductRepository;
+import mainProgram.services.ProductCatalogue;
+import mainProgram.table.Job;
+import mainProgram.table.JobPart;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Archiving closed jobs, and archiving products instead of deleting them.
+ *
+ * <p>The fixture jobs are dated back to 2000, and archiving is limited to their
+ * IDs, so it never moves jobs other tests or developers use.</p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixture.class)
+class JobArchiveTests {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JobRepository jobRepository;
+
+  @Autowired
+  private JobPartRepository jobPartRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductCatalogue productCatalogue;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private String marker;
+  private Product product;
+  private Job closed;
+  private Job open;
+
+  /// A picked-up job and an in-progress job, both untouched since 2000, sharing one product
+  @BeforeEach
+  void createFixture() {
+    marker = fixture.marker();
+    product = fixture.product("p", "Part " + marker, "del", 10.0);
+    closed = createJob("closed", (short) 6);
+    open = createJob("open", (short) 3);
+    jdbcTemplate.update(
+      "UPDATE jobs SET updated_at = ? WHERE id IN (?, ?)",
+      LocalDateTime.of(2000, 1, 1, 12, 0),
+      closed.getId(),
+      open.getId()
+    );
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void closedJobsMoveToTheArchiveWithTheirParts() throws Exception {
+    // Limited to the open job, nothing is archived
+    mvc
+      .perform(post("/api/jobs/archive").param("id", String.valueOf(open.getId())))
+      .andExpect(status().isOk())
+      .andExpect(content().string("0"));
+    assertTrue(jobRepository.findById(closed.getId()).isPresent());
+
+    mvc
+      .perform(post("/api/jobs/archive").param("id", String.valueOf(closed.getId()), String.valueOf(open.getId())))
+      .andExpect(status().isOk())
+      .andExpect(content().string("1"));
+
+    assertTrue(jobRepository.findById(closed.getId()).isEmpty());
+    assertTrue(jobRepository.findById(open.getId()).isPresent(), "Only picked-up jobs are archived");
+    assertEquals(1, count("SELECT COUNT(*) FROM jobs_archive WHERE id = ?", closed.getId()));
+    assertEquals(1, count("SELECT COUNT(*) FROM job_part_archive WHERE job_id = ?", closed.getId()));
+    assertEquals(1, count("SELECT COUNT(*) FROM job_tombstones WHERE job_id = ?", closed.getId()));
+    assertEquals(1, jobPartRepository.findByJobId(open.getId()).size());
+
+    // Normal search only sees the live job; the archive search is opt-in
+    mvc
+      .perform(get("/api/search/job").param("q", marker))
+      .andExpect(jsonPath("$.length()").value(1))
+      .andExpect(jsonPath("$[0].id").value(open.getId()));
+    mvc
+      .perform(get("/api/search/job").param("q", marker).param("archive", "true"))
+      .andExpect(jsonPath("$.length()").value(1))
+      .andExpect(jsonPath("$[0].id").value(closed.getId()))
+      .andExpect(jsonPath("$[0].status.name").value("pickedUp"));
+    // LIKE wildcards in the keyword are matched literally
+    mvc
+      .perform(get("/api/search/job").param("q", "%").param("archive", "true"))
+      .andExpect(jsonPath("$[?(@.id == %d)]", closed.getId()).isEmpty());
+  }
+
+  @Test
+  void deletingAProductArchivesIt() throws Exception {
+    mvc.perform(delete("/api/products/{id}", product.getId())).andExpect(status().isNoContent());
+    mvc.perform(delete("/api/products/{id}", product.getId())).andExpect(status().isNotFound());
+
+    assertTrue(productRepository.findById(product.getId()).orElseThrow().isArchived());
+    assertTrue(productRepository.search(marker).isEmpty());
+    assertTrue(productCatalogue.findByEan(product.getEAN()).isEmpty());
+    // The jobs that used it keep their part
+    JobPart part = jobPartRepository.findByJobId(open.getId()).get(0);
+    assertEquals("Part " + marker, part.getProduct().getName());
+
+    // It can't be added to a repair any more, also not to a line it is already on
+    String add = "[{\"repairId\": %d, \"productId\": %d, \"quantity\": 1}]".formatted(open.getId(), product.getId());
+    mvc
+      .perform(post("/api/repairs/addProduct").contentType(MediaType.APPLICATION_JSON).content(add))
+      .andExpect(status().isBadRequest());
+    assertEquals(2, jobPartRepository.findByJobId(open.getId()).get(0).getQuantity());
+
+    // It can't be edited any more, also not behind the application's back
+    mvc
+      .perform(put("/api/products/{id}", product.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"price\": 1.0}"))
+      .andExpect(status().isBadRequest());
+    assertThrows(
+      DataIntegrityViolationException.class,
+      () -> jdbcTemplate.update("UPDATE products SET price = 1.0 WHERE id = ?", product.getId())
+    );
+    assertEquals(10.0, productRepository.findById(product.getId()).orElseThrow().getPrice());
+
+    // Its codes are free for a new product
+    String recreated = "{\"productNumber\": \"%s\", \"name\": \"Part %s\", \"EAN\": \"%s\", \"price\": 12.0}".formatted(
+      product.getProductNumber(),
+      marker,
+      product.getEAN()
+    );
+    mvc
+      .perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(recreated))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.id").value(not(product.getId())));
+    assertEquals(12.0, productCatalogue.findByEan(product.getEAN()).orElseThrow().getPrice());
+  }
+
+  private Job createJob(String name, short statusId) {
+    Job job = fixture.job(name, LocalDateTime.of(2000, 1, 1, 10, 0), statusId);
+    jobPartRepository.save(new JobPart(job, product, 2));
+    return job;
+  }
+
+  private int count(String sql, Object... args) {
+    return jdbcTemplate.queryForObject(sql, Integer.class, args);
+  }
+}
@@ -0,0 +1,74 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import javax.sql.DataSource;
+import mainProgram.dto.JobChanges;
+import mainProgram.services.JobService;
+import mainProgram.table.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The incremental job change feed: a change committed after a client got its
+ * cursor is never skipped, also when it was written before.
+ */
+@SpringBootTest
+@Import(TestFixture.class)
+class JobChangeFeedTests {
+
+  @Autowired
+  private JobService jobService;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private Job job;
+
+  @BeforeEach
+  void createFixture() {
+    job = fixture.job("feed", LocalDateTime.now(), (short) 3);
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void changesCommittedAfterTheCursorAreReturned() throws Exception {
+    long cursor;
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement update = connection.prepareStatement("UPDATE jobs SET title = ? WHERE id = ?")) {
+        update.setString(1, "Renamed " + fixture.marker());
+        update.setInt(2, job.getId());
+        update.executeUpdate();
+      }
+      // Written, not yet committed: the cursor handed out now must not be past it
+      cursor = jobService.getChangesSince(null).cursor();
+      assertFalse(jobService.getChangesSince(cursor).changed().stream().anyMatch((j) -> j.getId().equals(job.getId())));
+      connection.commit();
+    }
+
+    JobChanges changes = jobService.getChangesSince(cursor);
+    assertFalse(changes.resync());
+    assertTrue(changes.changed().stream().anyMatch((j) -> j.getId().equals(job.getId())));
+
+    jobService.deleteJob(job.getId());
+    assertTrue(jobService.getChangesSince(changes.cursor()).deleted().contains(job.getId()));
+    long later = jobService.getChangesSince(null).cursor();
+    assertFalse(jobService.getChangesSince(later).deleted().contains(job.getId()));
+  }
+}
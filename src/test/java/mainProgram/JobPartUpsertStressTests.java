@@ -0,0 +1,107 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.repository.JobPartRepository;
+import mainProgram.services.JobService;
+import mainProgram.table.Job;
+import mainProgram.table.JobPart;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Many threads adding the same products to the same repair at once.
+ *
+ * <p>Every add must be counted exactly once, and each product must end up as a
+ * single line. Half of the threads add one product at a time, the other half send
+ * bulk requests listing the products in reverse order. Rows are still locked in
+ * the same order, so the two kinds of request can't deadlock each other.</p>
+ */
+@SpringBootTest
+@Import(TestFixture.class)
+class JobPartUpsertStressTests {
+
+  private static final int THREADS = 16;
+  private static final int ADDS_PER_THREAD = 100;
+
+  @Autowired
+  private JobService jobService;
+
+  @Autowired
+  private JobPartRepository jobPartRepository;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private Job job;
+  private Product first;
+  private Product second;
+
+  @BeforeEach
+  void createFixture() {
+    first = fixture.product("1", "Stress 1", "del", 1.0);
+    second = fixture.product("2", "Stress 2", "del", 1.0);
+    job = fixture.job("stress", LocalDateTime.now(), (short) 1);
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void concurrentAddsAreNeitherLostNorDuplicated() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      boolean bulk = t % 2 == 1;
+      results.add(
+        executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < ADDS_PER_THREAD; i++) {
+            if (bulk) {
+              jobService.addProductsToRepairs(
+                List.of(
+                  new RepairPartRequest(job.getId(), second.getId(), 1),
+                  new RepairPartRequest(job.getId(), first.getId(), 1)
+                )
+              );
+            } else {
+              jobService.addProductToRepair(job.getId(), first.getId(), 1);
+            }
+          }
+          return null;
+        })
+      );
+    }
+    start.countDown();
+    for (Future<?> result : results) {
+      result.get(); // Rethrows any failure from the worker thread
+    }
+    executor.shutdown();
+
+    List<JobPart> lines = jobPartRepository.findByJobId(job.getId());
+    assertEquals(2, lines.size(), "one line per product");
+    int total = THREADS * ADDS_PER_THREAD;
+    assertEquals(total, quantityOf(lines, first), "every add of the first product is counted");
+    assertEquals(total / 2, quantityOf(lines, second), "every bulk add of the second product is counted");
+  }
+
+  private static int quantityOf(List<JobPart> lines, Product product) {
+    return lines.stream().filter((line) -> line.getProduct().getId() == product.getId()).findFirst().orElseThrow().getQuantity();
+  }
+}
@@ -0,0 +1,160 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.repository.JobPartRepository;
+import mainProgram.repository.JobRepository;
+import mainProgram.repository.ProductRepository;
+import mainProgram.services.JobService;
+import mainProgram.table.Job;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The labour, parts and grand totals stored on each job, kept current by the database.
+ */
+@SpringBootTest
+@Import(TestFixture.class)
+class JobTotalsTests {
+
+  @Autowired
+  private JobService jobService;
+
+  @Autowired
+  private JobRepository jobRepository;
+
+  @Autowired
+  private JobPartRepository jobPartRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private Job job;
+  private Product chain;
+  private Product tube;
+
+  @BeforeEach
+  void createFixture() {
+    chain = fixture.product("1", "Chain", "drivetrain", 100.0);
+    tube = fixture.product("2", "Tube", "wheels", 40.0);
+    job = fixture.job("totals", LocalDateTime.now(), (short) 3);
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void totalsFollowPartsPricesAndLabour() {
+    assertTotals(150, 0);
+
+    jobService.addProductsToRepairs(
+      List.of(
+        new RepairPartRequest(job.getId(), chain.getId(), 1),
+        new RepairPartRequest(job.getId(), tube.getId(), 2),
+        new RepairPartRequest(job.getId(), tube.getId(), 1)
+      )
+    );
+    assertTotals(150, 100 + 3 * 40);
+
+    // A price change reaches every job using the product
+    tube.setPrice(45.0);
+    productRepository.save(tube);
+    assertTotals(150, 100 + 3 * 45);
+
+    // Editing the job changes the labour, and doesn't overwrite the parts total it loaded
+    Job edited = jobRepository.findById(job.getId()).orElseThrow();
+    jobService.addProductsToRepairs(List.of(new RepairPartRequest(job.getId(), chain.getId(), 1)));
+    edited.setWork_time_minutes(60);
+    jobRepository.save(edited);
+    assertTotals(300, 2 * 100 + 3 * 45);
+
+    // Removing a part takes it off again
+    jobPartRepository.deleteAll(
+      jobPartRepository.findByJobId(job.getId()).stream().filter((p) -> p.getProduct().getId() == tube.getId()).toList()
+    );
+    assertTotals(300, 2 * 100);
+  }
+
+  @Test
+  void partAddedDuringAPriceChangeGetsTheNewPrice() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement update = connection.prepareStatement("UPDATE products SET price = ? WHERE id = ?")) {
+        update.setDouble(1, 120.0);
+        update.setInt(2, chain.getId());
+        update.executeUpdate();
+      }
+      // The price trigger has run, and can't see lines added from now on until the change commits
+      Future<?> add = executor.submit(() -> jobService.addProductToRepair(job.getId(), chain.getId(), 2));
+      Thread.sleep(500);
+      assertFalse(add.isDone(), "The part add waits for the price change");
+      connection.commit();
+      add.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+    assertTotals(150, 2 * 120);
+  }
+
+  @Test
+  void cachedJobSearchesShowNewTotals() {
+    jobService.addProductToRepair(job.getId(), chain.getId(), 1);
+    assertEquals(100, searchedPartsTotal(), 0.001);
+
+    // The price trigger rewrites the job's totals, so the cached job results are dropped too
+    chain.setPrice(110.0);
+    productRepository.save(chain);
+    assertEquals(110, searchedPartsTotal(), 0.001);
+
+    jobService.addProductToRepair(job.getId(), tube.getId(), 1);
+    assertEquals(150, searchedPartsTotal(), 0.001);
+  }
+
+  private double searchedPartsTotal() {
+    List<Job> found = jobService.search(fixture.marker());
+    assertEquals(1, found.size());
+    return found.get(0).getParts_total();
+  }
+
+  private void assertTotals(double labour, double parts) {
+    Job stored = jobRepository.findById(job.getId()).orElseThrow();
+    assertEquals(labour, stored.getLabour_total(), 0.001);
+    assertEquals(parts, stored.getParts_total(), 0.001);
+    assertEquals(labour + parts, stored.getGrand_total(), 0.001);
+    // The generated columns agree with the entity
+    assertEquals(
+      labour + parts,
+      jdbcTemplate.queryForObject("SELECT grand_total FROM jobs WHERE id = ?", Double.class, job.getId()),
+      0.001
+    );
+  }
+}
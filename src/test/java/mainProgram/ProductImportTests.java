@@ -0,0 +1,155 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import mainProgram.dto.ProductImportStatus;
+import mainProgram.dto.ProductImportStatus.RowError;
+import mainProgram.dto.ProductImportStatus.State;
+import mainProgram.services.ProductCatalogue;
+import mainProgram.services.ProductImportService;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Supplier price list imports, CSV and JSON.
+ *
+ * <p>Small chunks and several workers, so even these short files are written
+ * as several parallel batches.</p>
+ */
+@SpringBootTest(properties = { "app.products.import.chunk-size=3", "app.products.import.workers=3" })
+@Import(TestFixture.class)
+class ProductImportTests {
+
+  @Autowired
+  private ProductImportService importService;
+
+  @Autowired
+  private ProductCatalogue productCatalogue;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TestFixture fixture;
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void csvInsertsThenUpdatesByEan() throws Exception {
+    String marker = fixture.marker();
+    String csv = """
+      Varenr;Navn;EAN;Kategori;Pris
+      %1$s-1;Chain;%1$s-e1;drivetrain;"1.234,50"
+      %1$s-1;Other chain;%1$s-e6;drivetrain;5
+      %1$s-2;Tube;%1$s-e2;wheels;45
+      %1$s-3;;%1$s-e3;wheels;10
+      %1$s-4;Brake pad;%1$s-e4;brakes;abc
+      %1$s-5;"Bell; ""loud\""";%1$s-e5;misc;60.5
+      %1$s-7;Saddle;%1$s-e7;misc;300
+      """.formatted(marker);
+
+    ProductImportStatus status = importAndWait(csv, "prices.csv");
+    assertEquals(State.COMPLETED, status.state());
+    assertEquals(7, status.rowsRead());
+    assertEquals(4, status.rowsImported());
+    assertEquals(3, status.rowsFailed());
+    // Line numbers count the header as line 1. Line 3 reuses the product number of line 2
+    // (same chunk, written in EAN order, so line 2 always wins).
+    assertEquals(List.of(3L, 5L, 6L), status.errors().stream().map(RowError::row).toList());
+    assertTrue(status.errors().get(0).message().contains("uk_products_product_number"));
+
+    Product chain = productCatalogue.findByEan(marker + "-e1").orElseThrow();
+    assertEquals(1234.5, chain.getPrice());
+    assertEquals("Bell; \"loud\"", productCatalogue.findByEan(marker + "-e5").orElseThrow().getName());
+
+    // Same EAN again: the existing product is updated, not duplicated
+    String update = """
+      EAN,price,name
+      %1$s-e1,99.95,Chain
+      """.formatted(marker);
+    assertEquals(1, importAndWait(update, "update.csv").rowsImported());
+    Product updated = productCatalogue.findByEan(marker + "-e1").orElseThrow();
+    assertEquals(chain.getId(), updated.getId());
+    assertEquals(99.95, updated.getPrice());
+    assertEquals(marker + "-1", updated.getProductNumber());
+  }
+
+  @Test
+  void jsonMatchesOnProductNumberWithoutEan() throws Exception {
+    String marker = fixture.marker();
+    String json = """
+      [
+        {"productNumber": "%1$s-1", "name": "Spoke", "price": 2.5},
+        {"productNumber": "%1$s-2", "name": "Nipple", "price": 0.5, "type": "wheels"},
+        {"productNumber": "%1$s-1", "name": "Spoke", "price": 3},
+        "not an object",
+        {"name": "No code", "price": 1}
+      ]
+      """.formatted(marker);
+
+    ProductImportStatus status = importAndWait(json, "prices.json");
+    assertEquals(State.COMPLETED, status.state());
+    assertEquals(5, status.rowsRead());
+    assertEquals(3, status.rowsImported());
+    assertEquals(List.of(4L, 5L), status.errors().stream().map(RowError::row).toList());
+    // Same code twice in one chunk: the later row wins
+    assertEquals(3.0, productCatalogue.findByProductNumber(marker + "-1").orElseThrow().getPrice());
+    assertEquals(
+      1,
+      jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE \"productNumber\" = ?", Integer.class, marker + "-1")
+    );
+  }
+
+  @Test
+  void productWithoutEanGainsOneOnProductNumber() throws Exception {
+    String marker = fixture.marker();
+    String json = """
+      [{"productNumber": "%1$s-1", "name": "Rim", "price": 200}]
+      """.formatted(marker);
+    assertEquals(1, importAndWait(json, "prices.json").rowsImported());
+    Product rim = productCatalogue.findByProductNumber(marker + "-1").orElseThrow();
+
+    // Same product number, now with an EAN: the product gets the EAN instead of being rejected
+    String csv = """
+      Varenr;Navn;EAN;Pris
+      %1$s-1;Rim;%1$s-e1;210
+      """.formatted(marker);
+    ProductImportStatus status = importAndWait(csv, "prices.csv");
+    assertEquals(1, status.rowsImported());
+    assertEquals(0, status.rowsFailed());
+    Product updated = productCatalogue.findByEan(marker + "-e1").orElseThrow();
+    assertEquals(rim.getId(), updated.getId());
+    assertEquals(210.0, updated.getPrice());
+    assertEquals(
+      1,
+      jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE \"productNumber\" = ?", Integer.class, marker + "-1")
+    );
+  }
+
+  private ProductImportStatus importAndWait(String content, String fileName) throws Exception {
+    ProductImportStatus status = importService.start(
+      new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)),
+      fileName,
+      null
+    );
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    while (status.state() == State.RUNNING && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      status = importService.status(status.id()).orElseThrow();
+    }
+    return status;
+  }
+}
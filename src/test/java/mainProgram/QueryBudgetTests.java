@@ -0,0 +1,285 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import mainProgram.repository.JobPartRepository;
+import mainProgram.repository.JobRepository;
+import mainProgram.table.Job;
+import mainProgram.table.JobPart;
+import mainProgram.table.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * Query budgets for the endpoints that list jobs and job parts.
+ *
+ * <p>Each test counts the JDBC statements one request prepares, using Hibernate
+ * {@link Statistics}, and fails if the count is over the endpoint's budget. The
+ * fixture has several jobs, products and parts, so an association that is loaded
+ * one row at a time (N+1) goes over budget.</p>
+ *
+ * <p>Endpoints that write with JdbcTemplate are counted at the DataSource instead,
+ * with {@link StatementCounter}, since Hibernate never sees those statements.</p>
+ */
+@SpringBootTest(
+  properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+  }
+)
+@AutoConfigureMockMvc
+@Import({ TestFixture.class, StatementCounter.class })
+class QueryBudgetTests {
+
+  private static final int JOBS = 3;
+  private static final int PRODUCTS = 3;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JobRepository jobRepository;
+
+  @Autowired
+  private JobPartRepository jobPartRepository;
+
+  @Autowired
+  private TestFixture fixture;
+
+  @Autowired
+  private StatementCounter statements;
+
+  private Statistics statistics;
+  private String marker;
+  private final List<Job> jobs = new ArrayList<>();
+  private final List<Product> products = new ArrayList<>();
+  private final List<JobPart> parts = new ArrayList<>();
+
+  /// Every job gets every product, each job has a different status
+  @BeforeEach
+  void createFixture() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    marker = fixture.marker();
+
+    for (int i = 1; i <= PRODUCTS; i++) {
+      products.add(fixture.product(String.valueOf(i), "Part " + marker + " " + i, "del", 10.0 * i));
+    }
+    for (int i = 1; i <= JOBS; i++) {
+      jobs.add(fixture.job(String.valueOf(i), LocalDateTime.now().plusDays(i), (short) i));
+    }
+    for (Job job : jobs) {
+      for (Product product : products) {
+        parts.add(jobPartRepository.save(new JobPart(job, product, 1)));
+      }
+    }
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+  }
+
+  @Test
+  void jobDetailsPage() throws Exception {
+    // The job, then its parts with their products
+    assertBudget(2, get("/jobliste/{id}", jobs.get(0).getId()));
+  }
+
+  @Test
+  void jobPartsApi() throws Exception {
+    assertBudget(1, get("/api/products").param("after", String.valueOf(parts.get(0).getId() - 1)));
+  }
+
+  @Test
+  void jobById() throws Exception {
+    assertBudget(1, get("/api/jobs/{id}", jobs.get(0).getId()));
+  }
+
+  @Test
+  void allJobs() throws Exception {
+    assertBudget(1, get("/api/jobs"));
+  }
+
+  @Test
+  void jobKeysetPage() throws Exception {
+    assertBudget(1, get("/api/jobs/page").param("after", String.valueOf(jobs.get(0).getId() - 1)));
+  }
+
+  @Test
+  void jobListPage() throws Exception {
+    // The page, plus the count query when the page is full
+    assertBudget(2, get("/jobliste").param("filter", "all"));
+  }
+
+  @Test
+  void jobSearch() throws Exception {
+    assertBudget(1, get("/api/search/job").param("q", marker));
+  }
+
+  @Test
+  void jobChanges() throws Exception {
+    // Start syncing, then fetch the changes since
+    String started = mvc.perform(get("/api/jobs/changes")).andReturn().getResponse().getContentAsString();
+    long cursor = JsonPath.<Number>read(started, "$.cursor").longValue();
+    // Changed jobs, then deleted IDs (the cursor itself is read with plain SQL)
+    assertBudget(2, get("/api/jobs/changes").param("since", String.valueOf(cursor)));
+  }
+
+  @Test
+  void createJob() throws Exception {
+    String body = """
+      {"title":"Job %s new","customer_name":"Customer","customer_phone":"12345678","date":"2030-01-01T10:00:00",
+       "work_time_minutes":10,"price_per_minute":1.0,"status":{"id":3}}
+      """.formatted(marker);
+
+    // Only the insert: the status is checked and filled in from the registry
+    statistics.clear();
+    String response = mvc
+      .perform(post("/api/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.status.name").value("inProgress"))
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+    long statements = statistics.getPrepareStatementCount();
+    jobs.add(fixture.track(jobRepository.findById(JsonPath.<Integer>read(response, "$.id")).orElseThrow()));
+    assertTrue(statements <= 1, "Expected only the insert, but the request used " + statements);
+  }
+
+  @Test
+  void updateJobStatus() throws Exception {
+    String body = """
+      {"title":"Job %s moved","customer_name":"Customer","customer_phone":"12345678","date":"2030-01-01T10:00:00",
+       "work_time_minutes":10,"price_per_minute":1.0,"status":{"id":6}}
+      """.formatted(marker);
+    // Load the job, then update it
+    assertBudget(2, put("/api/jobs/{id}", jobs.get(0).getId()).contentType(MediaType.APPLICATION_JSON).content(body));
+    assertEquals((short) 6, jobRepository.findById(jobs.get(0).getId()).orElseThrow().getStatus().getId());
+  }
+
+  @Test
+  void rescheduleJob() throws Exception {
+    Job job = jobs.get(0);
+    String body = """
+      {"date":"2030-01-01T10:00:00","work_time_minutes":90,"version":%d}
+      """.formatted(job.getVersion());
+
+    // One UPDATE ... RETURNING, no load first
+    assertBudget(1, patch("/api/jobs/{id}/schedule", job.getId()).contentType(MediaType.APPLICATION_JSON).content(body));
+    Job moved = jobRepository.findById(job.getId()).orElseThrow();
+    assertEquals(90, moved.getWork_time_minutes().intValue());
+    assertEquals(job.getVersion() + 1, moved.getVersion().longValue());
+
+    // The same version again is stale: 409 with the current job
+    mvc
+      .perform(patch("/api/jobs/{id}/schedule", job.getId()).contentType(MediaType.APPLICATION_JSON).content(body))
+      .andExpect(status().isConflict())
+      .andExpect(jsonPath("$.version").value(moved.getVersion()));
+  }
+
+  @Test
+  void bulkStatus() throws Exception {
+    // jobs.get(2) already has status 3, so it is not touched
+    String body = """
+      {"ids":[%d,%d,%d,0],"statusId":3}
+      """.formatted(jobs.get(0).getId(), jobs.get(1).getId(), jobs.get(2).getId());
+
+    // One UPDATE ... RETURNING for all of them
+    statistics.clear();
+    mvc
+      .perform(post("/api/jobs/bulk/status").contentType(MediaType.APPLICATION_JSON).content(body))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2))
+      .andExpect(jsonPath("$[0]").value(jobs.get(0).getId()))
+      .andExpect(jsonPath("$[1]").value(jobs.get(1).getId()));
+    assertTrue(statistics.getPrepareStatementCount() <= 1);
+    for (Job job : jobs) {
+      assertEquals((short) 3, jobRepository.findById(job.getId()).orElseThrow().getStatus().getId());
+    }
+  }
+
+  @Test
+  void bulkReschedule() throws Exception {
+    // Put the fixture jobs on three days no other job uses, then move the first two a day later
+    LocalDateTime from = LocalDateTime.of(2199, 1, 1, 0, 0);
+    List<Job> saved = new ArrayList<>();
+    for (int i = 0; i < JOBS; i++) {
+      Job job = jobRepository.findById(jobs.get(i).getId()).orElseThrow();
+      job.setDate(from.plusDays(i).withHour(10));
+      saved.add(jobRepository.save(job));
+    }
+    String body = """
+      {"from":"%s","to":"%s","offsetMinutes":1440}
+      """.formatted(from, from.plusDays(2));
+
+    assertBudget(1, post("/api/jobs/bulk/reschedule").contentType(MediaType.APPLICATION_JSON).content(body));
+    for (int i = 0; i < JOBS; i++) {
+      Job job = jobRepository.findById(saved.get(i).getId()).orElseThrow();
+      int days = i < 2 ? 1 : 0;
+      assertEquals(saved.get(i).getDate().plusDays(days), job.getDate());
+      assertEquals(saved.get(i).getVersion() + days, job.getVersion().longValue());
+    }
+  }
+
+  @Test
+  void addPartsInBulk() throws Exception {
+    // Two new products, added to every job, plus more of a product every job already has
+    for (int i = 1; i <= 2; i++) {
+      products.add(fixture.product("new" + i, "New " + i, "del", 1.0));
+    }
+    StringBuilder body = new StringBuilder("[");
+    for (Job job : jobs) {
+      for (Product product : products) {
+        body.append("{\"repairId\":%d,\"productId\":%d,\"quantity\":2},".formatted(job.getId(), product.getId()));
+      }
+      // Repeated line, merged with the one above
+      body.append("{\"repairId\":%d,\"productId\":%d},".formatted(job.getId(), products.get(0).getId()));
+    }
+    body.setCharAt(body.length() - 1, ']');
+
+    // Counted at the DataSource: one statement locking the products, then one JDBC batch of upserts.
+    // Hibernate must not load or flush any entities.
+    statements.reset();
+    mvc
+      .perform(post("/api/repairs/addProduct").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+      .andExpect(status().isOk());
+    assertEquals(2, statements.count(), "Expected the product locks and one batch");
+
+    List<JobPart> lines = jobPartRepository.findByJobId(jobs.get(0).getId());
+    assertEquals(PRODUCTS + 2, lines.size());
+    JobPart first = lines.stream().filter((p) -> p.getProduct().getId() == products.get(0).getId()).findFirst().orElseThrow();
+    assertEquals(1 + 2 + 1, first.getQuantity());
+  }
+
+  private void assertBudget(int budget, RequestBuilder request) throws Exception {
+    statistics.clear();
+    mvc.perform(request).andExpect(status().isOk());
+    long statements = statistics.getPrepareStatementCount();
+    assertTrue(statements <= budget, "Expected at most " + budget + " SQL statements, but the request used " + statements);
+  }
+}
@@ -0,0 +1,231 @@
+package mainProgram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import mainProgram.dto.JobStatusPatch;
+import mainProgram.dto.PartsUsageReportRow;
+import mainProgram.dto.RepairPartRequest;
+import mainProgram.dto.RevenueReportRow;
+import mainProgram.dto.StatusReportRow;
+import mainProgram.repository.JobRepository;
+import mainProgram.repository.ProductRepository;
+import mainProgram.repository.ReportRepository;
+import mainProgram.services.JobArchiver;
+import mainProgram.services.JobService;
+import mainProgram.services.ReportService;
+import mainProgram.services.ReportService.Period;
+import mainProgram.table.Job;
+import mainProgram.table.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The report rollups: kept current by job, part and product writes, unchanged by
+ * archiving, and equal to a rebuild from scratch.
+ *
+ * <p>The fixture jobs are booked in 1990, so the reports only contain the fixture,
+ * and archiving and rebuilds are limited to the fixture jobs and to 1990.
+ * Status transitions are counted on the day they are made, so that report is
+ * compared before and after a change.</p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixture.class)
+class ReportTests {
+
+  private static final LocalDate FROM = LocalDate.of(1990, 1, 1);
+  private static final LocalDate TO = LocalDate.of(1990, 12, 31);
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private ReportService reportService;
+
+  @Autowired
+  private ReportRepository reportRepository;
+
+  @Autowired
+  private JobService jobService;
+
+  @Autowired
+  private JobArchiver archiver;
+
+  @Autowired
+  private JobRepository jobRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TestFixture fixture;
+
+  private String marker;
+  private Product fuse;
+  private Product cable;
+  private Job march;
+  private Job later;
+
+  @BeforeEach
+  void createFixture() {
+    marker = fixture.marker();
+    fuse = fixture.product("1", "Fuse", marker + "-el", 10.0);
+    cable = fixture.product("2", "Cable", marker + "-wire", 25.0);
+    march = fixture.job("march", LocalDateTime.of(1990, 3, 5, 9, 0), (short) 3);
+    later = fixture.job("later", LocalDateTime.of(1990, 3, 20, 9, 0), (short) 6);
+    jobService.addProductsToRepairs(
+      List.of(
+        new RepairPartRequest(march.getId(), fuse.getId(), 2),
+        new RepairPartRequest(march.getId(), cable.getId(), 1),
+        new RepairPartRequest(later.getId(), fuse.getId(), 3)
+      )
+    );
+  }
+
+  @AfterEach
+  void deleteFixture() {
+    fixture.delete();
+    // Deleting archived jobs by hand isn't journalled
+    reportService.rebuild(FROM, TO);
+  }
+
+  @Test
+  void rollupsFollowWritesAndMatchARebuild() throws Exception {
+    mvc
+      .perform(get("/api/reports/revenue").param("from", "1990-01-01").param("to", "1990-12-31"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andExpect(jsonPath("$[0].period").value("1990-03-01"))
+      .andExpect(jsonPath("$[0].jobs").value(2))
+      .andExpect(jsonPath("$[0].labourMinutes").value(60))
+      .andExpect(jsonPath("$[0].revenue").value(300 + 5 * 10 + 25));
+    assertEquals(
+      List.of(
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-el", 5),
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-wire", 1)
+      ),
+      reportService.partsUsage(Period.MONTH, FROM, TO)
+    );
+
+    // A job moved to another month, a price change and a product moved to another type
+    Job moved = jobRepository.findById(later.getId()).orElseThrow();
+    moved.setDate(LocalDateTime.of(1990, 4, 2, 9, 0));
+    jobRepository.save(moved);
+    fuse.setPrice(12.0);
+    fuse.setType(marker + "-fuse");
+    productRepository.save(fuse);
+
+    List<RevenueReportRow> revenue = reportService.revenue(Period.MONTH, FROM, TO, null);
+    assertEquals(2, revenue.size());
+    // Reports include the journal rows not folded yet, so folding doesn't change them
+    reportRepository.fold();
+    assertEquals(revenue, reportService.revenue(Period.MONTH, FROM, TO, null));
+    assertEquals(150 + 2 * 12 + 25, revenue.get(0).revenue(), 0.001);
+    assertEquals(150 + 3 * 12, revenue.get(1).revenue(), 0.001);
+    assertEquals(150 + 3 * 12, reportService.revenue(Period.MONTH, FROM, TO, (short) 6).get(0).revenue(), 0.001);
+    List<PartsUsageReportRow> parts = reportService.partsUsage(Period.MONTH, FROM, TO);
+    assertEquals(
+      List.of(
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-fuse", 2),
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-wire", 1),
+        new PartsUsageReportRow(LocalDate.of(1990, 4, 1), marker + "-fuse", 3)
+      ),
+      parts
+    );
+
+    // Archiving the picked-up job doesn't change the reports, and neither does a rebuild
+    jdbcTemplate.update("UPDATE jobs SET updated_at = ? WHERE id = ?", LocalDateTime.of(1990, 4, 3, 12, 0), later.getId());
+    assertEquals(1, archiver.archiveClosedJobs(fixture.jobIds()));
+    assertEquals(revenue, reportService.revenue(Period.MONTH, FROM, TO, null));
+    assertEquals(parts, reportService.partsUsage(Period.MONTH, FROM, TO));
+
+    reportService.rebuild(FROM, TO);
+    assertEquals(revenue.size(), reportService.revenue(Period.MONTH, FROM, TO, null).size());
+    for (int i = 0; i < revenue.size(); i++) {
+      RevenueReportRow rebuilt = reportService.revenue(Period.MONTH, FROM, TO, null).get(i);
+      assertEquals(revenue.get(i).jobs(), rebuilt.jobs());
+      assertEquals(revenue.get(i).revenue(), rebuilt.revenue(), 0.001);
+    }
+    assertEquals(parts, reportService.partsUsage(Period.MONTH, FROM, TO));
+  }
+
+  @Test
+  void statusChangesAreCountedOnTheDayTheyAreMade() throws Exception {
+    LocalDate today = LocalDate.now();
+    long pickedUp = transitionsToday((short) 6);
+
+    long version = jobRepository.findById(march.getId()).orElseThrow().getVersion();
+    jobService.changeJobStatus(march.getId(), new JobStatusPatch((short) 6, version));
+    assertEquals(pickedUp + 1, transitionsToday((short) 6));
+
+    // A job booked in 1990 changed today is not a 1990 transition
+    mvc
+      .perform(get("/api/reports/status").param("from", "1990-01-01").param("to", "1990-12-31"))
+      .andExpect(jsonPath("$.length()").value(0));
+    mvc
+      .perform(get("/api/reports/status").param("from", today.toString()).param("to", today.toString()).param("period", "day"))
+      .andExpect(jsonPath("$[?(@.status == 'pickedUp')].jobs").value((int) pickedUp + 1));
+  }
+
+  @Test
+  void rebuildingARangeLeavesOtherDaysAlone() throws Exception {
+    // Archive the picked-up job, then delete it from the archive by hand: that isn't journalled
+    jdbcTemplate.update("UPDATE jobs SET updated_at = ? WHERE id = ?", LocalDateTime.of(1990, 4, 3, 12, 0), later.getId());
+    assertEquals(1, archiver.archiveClosedJobs(List.of(later.getId())));
+    jdbcTemplate.update("DELETE FROM job_part_archive WHERE job_id = ?", later.getId());
+    jdbcTemplate.update("DELETE FROM jobs_archive WHERE id = ?", later.getId());
+    assertEquals(2, reportService.revenue(Period.MONTH, FROM, TO, null).get(0).jobs());
+
+    mvc.perform(post("/api/reports/rebuild").param("from", "1991-01-01").param("to", "1991-12-31")).andExpect(status().isOk());
+    assertEquals(2, reportService.revenue(Period.MONTH, FROM, TO, null).get(0).jobs());
+
+    // Only the day of the deleted job is recomputed
+    mvc.perform(post("/api/reports/rebuild").param("from", "1990-03-20").param("to", "1990-03-20")).andExpect(status().isOk());
+    assertEquals(1, reportService.revenue(Period.MONTH, FROM, TO, null).get(0).jobs());
+    assertEquals(
+      List.of(
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-el", 2),
+        new PartsUsageReportRow(LocalDate.of(1990, 3, 1), marker + "-wire", 1)
+      ),
+      reportService.partsUsage(Period.MONTH, FROM, TO)
+    );
+  }
+
+  @Test
+  void invalidRangesAreRejected() throws Exception {
+    mvc
+      .perform(get("/api/reports/revenue").param("from", "1990-12-31").param("to", "1990-01-01"))
+      .andExpect(status().isBadRequest());
+    mvc
+      .perform(get("/api/reports/parts").param("from", "1990-01-01").param("to", "1990-12-31").param("period", "year"))
+      .andExpect(status().isBadRequest());
+    mvc.perform(post("/api/reports/rebuild").param("from", "1990-01-01")).andExpect(status().isBadRequest());
+  }
+
+  private long transitionsToday(short statusId) {
+    LocalDate today = LocalDate.now();
+    return reportService
+      .statusThroughput(Period.DAY, today, today)
+      .stream()
+      .filter((row) -> row.statusId() == statusId)
+      .mapToLong(StatusReportRow::jobs)
+      .sum();
+  }
+}
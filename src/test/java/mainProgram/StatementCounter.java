@@ -0,0 +1,94 @@
+package mainProgram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts the JDBC statements the application executes, however they are sent:
+ * Hibernate, JdbcTemplate or plain JDBC. Hibernate's statistics only see
+ * Hibernate's own statements.
+ *
+ * <p>Import it with {@code @Import(StatementCounter.class)}; it wraps the
+ * DataSource bean. Only statements executed on the thread that called
+ * {@link #reset()} are counted, so scheduled work running meanwhile doesn't
+ * change the count. A JDBC batch counts as one statement: it is sent in one
+ * round trip.</p>
+ */
+@TestComponent
+class StatementCounter implements BeanPostProcessor {
+
+  private final AtomicInteger count = new AtomicInteger();
+  private volatile Thread counting;
+
+  /// Starts counting from zero, on the calling thread
+  void reset() {
+    counting = Thread.currentThread();
+    count.set(0);
+  }
+
+  int count() {
+    return count.get();
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+      return new CountingDataSource(dataSource);
+    }
+    return bean;
+  }
+
+  private class CountingDataSource extends DelegatingDataSource {
+
+    CountingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return wrap(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return wrap(Connection.class, super.getConnection(username, password));
+    }
+  }
+
+  /// Wraps a connection, so the statements it creates are wrapped too, or a statement, so its executions are counted
+  private <T> T wrap(Class<T> type, T target) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      Object result = invoke(method, target, args);
+      if (type == Connection.class && (method.getName().startsWith("prepare") || method.getName().equals("createStatement"))) {
+        return wrapStatement(method.getReturnType(), result);
+      }
+      if (type != Connection.class && method.getName().startsWith("execute") && Thread.currentThread() == counting) {
+        count.incrementAndGet();
+      }
+      return result;
+    };
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T wrapStatement(Class<T> type, Object statement) {
+    return wrap(type, (T) statement);
+  }
+
+  private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
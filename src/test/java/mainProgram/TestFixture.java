@@ -0,0 +1,98 @@
+package mainProgram;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import mainProgram.repository.JobRepository;
+import mainProgram.repository.ProductRepository;
+import mainProgram.services.JobService;
+import mainProgram.services.JobStatusRegistry;
+import mainProgram.table.Job;
+import mainProgram.table.Product;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Scope;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The products and jobs one test works on, in the shared development database.
+ *
+ * <p>Everything is tagged with a marker unique to the test: product numbers start
+ * with it and job titles contain it, so searches only find the fixture.
+ * {@link #delete()} removes the fixture again, archived jobs and products the test
+ * created itself (with a product number starting with the marker) included, and
+ * nothing else.</p>
+ *
+ * <p>Import it with {@code @Import(TestFixture.class)}; it is a prototype, so every
+ * test instance gets its own.</p>
+ */
+@TestComponent
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+class TestFixture {
+
+  private final JobService jobService;
+  private final JobRepository jobRepository;
+  private final ProductRepository productRepository;
+  private final JobStatusRegistry statusRegistry;
+  private final JdbcTemplate jdbcTemplate;
+
+  private final String marker = "fx" + UUID.randomUUID().toString().substring(0, 8);
+  private final List<Integer> jobIds = new ArrayList<>();
+
+  TestFixture(
+    JobService jobService,
+    JobRepository jobRepository,
+    ProductRepository productRepository,
+    JobStatusRegistry statusRegistry,
+    JdbcTemplate jdbcTemplate
+  ) {
+    this.jobService = jobService;
+    this.jobRepository = jobRepository;
+    this.productRepository = productRepository;
+    this.statusRegistry = statusRegistry;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  String marker() {
+    return marker;
+  }
+
+  /// A product with product number "{marker}-{code}" and EAN "{marker}-e{code}"
+  Product product(String code, String name, String type, double price) {
+    return productRepository.save(new Product(marker + "-" + code, name, marker + "-e" + code, type, price));
+  }
+
+  /// A job titled "Job {marker} {name}": 30 minutes at 5.0 a minute
+  Job job(String name, LocalDateTime date, short statusId) {
+    Job job = new Job();
+    job.setTitle("Job " + marker + " " + name);
+    job.setCustomer_name("Customer");
+    job.setCustomer_phone("12345678");
+    job.setWork_time_minutes(30);
+    job.setPrice_per_minute(5.0);
+    job.setDate(date);
+    job.setStatus(statusRegistry.resolve(statusId));
+    return track(jobRepository.save(job));
+  }
+
+  /// Deletes the job with the fixture, for jobs the test created itself
+  Job track(Job job) {
+    jobIds.add(job.getId());
+    return job;
+  }
+
+  List<Integer> jobIds() {
+    return List.copyOf(jobIds);
+  }
+
+  void delete() {
+    for (int id : jobIds) {
+      jobService.deleteJob(id);
+      jdbcTemplate.update("DELETE FROM job_part_archive WHERE job_id = ?", id);
+      jdbcTemplate.update("DELETE FROM jobs_archive WHERE id = ?", id);
+      jdbcTemplate.update("DELETE FROM job_tombstones WHERE job_id = ?", id);
+    }
+    jdbcTemplate.update("DELETE FROM products WHERE \"productNumber\" LIKE ?", marker + "-%");
+  }
+}